@@ -0,0 +1,41 @@
+-- =====================================================
+-- 部门层级闭包表（可选）
+-- 保存每一对 祖先-子孙 关系（含自身，depth = 0），
+-- 祖先/子孙查询变为单条索引查询，无需递归。
+-- 启用：执行本脚本后设置 wms.department.closure.enabled=true
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS sys_department_closure (
+    ancestor_id BIGINT NOT NULL,
+    descendant_id BIGINT NOT NULL,
+    depth INTEGER NOT NULL,
+    PRIMARY KEY (ancestor_id, descendant_id),
+    CONSTRAINT fk_dept_closure_ancestor FOREIGN KEY (ancestor_id) REFERENCES sys_department(department_id) ON DELETE CASCADE,
+    CONSTRAINT fk_dept_closure_descendant FOREIGN KEY (descendant_id) REFERENCES sys_department(department_id) ON DELETE CASCADE
+);
+
+-- 主键覆盖"查子孙"，此索引覆盖"查祖先"
+CREATE INDEX IF NOT EXISTS idx_sys_department_closure_descendant ON sys_department_closure(descendant_id, depth);
+
+COMMENT ON TABLE sys_department_closure IS '部门层级闭包表';
+COMMENT ON COLUMN sys_department_closure.ancestor_id IS '祖先部门ID';
+COMMENT ON COLUMN sys_department_closure.descendant_id IS '子孙部门ID';
+COMMENT ON COLUMN sys_department_closure.depth IS '层级距离，0 表示自身';
+
+-- =====================================================
+-- 全量重建（首次启用或校验不一致时执行；也可调用 POST /api/department/hierarchy-index/rebuild）
+-- =====================================================
+BEGIN;
+DELETE FROM sys_department_closure;
+INSERT INTO sys_department_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE paths AS (
+    SELECT department_id AS ancestor_id, department_id AS descendant_id, 0 AS depth
+    FROM sys_department
+    UNION ALL
+    SELECT p.ancestor_id, d.department_id, p.depth + 1
+    FROM paths p
+    JOIN sys_department d ON d.parent_id = p.descendant_id
+    WHERE p.depth < 1000
+)
+SELECT ancestor_id, descendant_id, depth FROM paths;
+COMMIT;
@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
@@ -21,6 +22,7 @@ import java.util.Map;
  * 使用构造器注入，完全解耦
  */
 @SpringBootApplication
+@EnableScheduling
 public class WmsApplication implements CommandLineRunner {
 
     private static final Logger log = LoggerFactory.getLogger(WmsApplication.class);
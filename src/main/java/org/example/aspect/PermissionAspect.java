@@ -4,8 +4,9 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.example.annotation.RequirePermission;
+import org.example.service.AuthService;
 import org.example.service.MenuService;
-import org.example.util.JwtUtil;
+import org.example.util.TokenClaims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -25,9 +26,11 @@ public class PermissionAspect {
     private static final Logger log = LoggerFactory.getLogger(PermissionAspect.class);
 
     private final MenuService menuService;
+    private final AuthService authService;
 
-    public PermissionAspect(MenuService menuService) {
+    public PermissionAspect(MenuService menuService, AuthService authService) {
         this.menuService = menuService;
+        this.authService = authService;
     }
 
     @Around("@annotation(requirePermission)")
@@ -50,13 +53,12 @@ public class PermissionAspect {
         }
         token = token.substring(7);
 
-        // 3. 从Token中提取用户ID
-        String userId;
-        try {
-            userId = JwtUtil.getUserId(token);
-        } catch (Exception e) {
-            throw new RuntimeException("Token解析失败: " + e.getMessage());
+        // 3. 校验Token（含黑名单）并提取用户ID
+        TokenClaims claims = authService.verifyToken(token);
+        if (claims == null) {
+            throw new RuntimeException("Token无效、已过期或已登出");
         }
+        String userId = claims.userId();
 
         // 4. 检查用户是否拥有该权限
         boolean hasPermission = menuService.hasPermission(userId, permissionCode);
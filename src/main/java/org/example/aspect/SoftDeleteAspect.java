@@ -7,6 +7,7 @@ import org.example.entity.SysUser;
 import org.example.entity.SysUserArchive;
 import org.example.repository.UserArchiveRepository;
 import org.example.repository.UserRepository;
+import org.example.service.UsernameIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.annotation.Order;
@@ -27,10 +28,13 @@ public class SoftDeleteAspect {
 
     private final UserRepository userRepository;
     private final UserArchiveRepository userArchiveRepository;
+    private final UsernameIndex usernameIndex;
 
-    public SoftDeleteAspect(UserRepository userRepository, UserArchiveRepository userArchiveRepository) {
+    public SoftDeleteAspect(UserRepository userRepository, UserArchiveRepository userArchiveRepository,
+                            UsernameIndex usernameIndex) {
         this.userRepository = userRepository;
         this.userArchiveRepository = userArchiveRepository;
+        this.usernameIndex = usernameIndex;
     }
 
     /**
@@ -50,7 +54,7 @@ public class SoftDeleteAspect {
         log.info("SoftDelete: 开始归档用户, userId={}", userId);
 
         // 1. 查询用户
-        SysUser user = userRepository.findById(userId);
+        SysUser user = userRepository.findByIdWithPassword(userId);
         if (user == null) {
             log.warn("SoftDelete: 用户不存在, userId={}", userId);
             return false;
@@ -62,6 +66,7 @@ public class SoftDeleteAspect {
 
         // 3. 删除原表数据
         userRepository.delete(userId);
+        usernameIndex.remove(user.getUserName());
 
         log.info("SoftDelete: 用户归档成功, userId={}", userId);
         return true;
@@ -102,6 +107,7 @@ public class SoftDeleteAspect {
 
         // 4. 删除归档记录
         userArchiveRepository.deleteByUserId(userId);
+        usernameIndex.add(user.getUserName());
 
         log.info("RestoreUser: 用户恢复成功, userId={}", userId);
         return true;
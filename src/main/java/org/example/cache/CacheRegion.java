@@ -0,0 +1,51 @@
+package org.example.cache;
+
+/**
+ * 本地缓存区域，失效事件按区域分发
+ */
+public enum CacheRegion {
+    /**
+     * 权限索引（键：post:{postId}、user:{userId}、menu:{menuId}）
+     */
+    PERMISSION,
+    /**
+     * 用户菜单树 / 动态路由响应（整体失效）
+     */
+    ROUTE,
+    /**
+     * 组织结构快照（整体失效）
+     */
+    ORG,
+    /**
+     * 已验证 Token（键：{摘要}:{过期时间秒}）
+     */
+    TOKEN,
+    /**
+     * 公司（键：companyId）
+     */
+    COMPANY,
+    /**
+     * 部门（键：departmentId）
+     */
+    DEPARTMENT,
+    /**
+     * 菜单（键：menuCode）
+     */
+    MENU,
+    /**
+     * 用户（键：userId；不含密码哈希）
+     */
+    USER,
+    /**
+     * Token 黑名单布隆过滤器（键：Token 摘要；整体失效表示可能漏收，重建过滤器）
+     */
+    TOKEN_BLACKLIST,
+    /**
+     * 用户级会话吊销水位（键：{userId}:{水位}；整体失效表示可能漏收，全量重载）
+     */
+    TOKEN_REVOCATION,
+    /**
+     * 用户名布隆过滤器（键：新增的用户名；整体失效表示可能漏收，重建过滤器）
+     */
+    USERNAME
+}
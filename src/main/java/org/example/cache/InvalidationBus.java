@@ -0,0 +1,262 @@
+package org.example.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.example.service.RedisService;
+import org.example.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存失效总线
+ * <p>
+ * 多实例部署时，各节点的本地缓存通过 Redis 主题同步失效：写操作在事务提交后发布失效事件，
+ * 其他节点按区域分发给订阅的缓存，精确失效对应的键。发布节点自身的缓存由调用方直接处理，收到自己的事件时忽略。
+ * <p>
+ * 每个事件携带全局纪元（Redis 计数器，每次发布加一）。节点记录已连续收到的最大纪元，
+ * 定期与 Redis 中的纪元比对：若某纪元在一个检查周期后仍未收到（消息丢失、订阅断开重连等），
+ * 则认为丢失了事件，失效全部区域。订阅断开后重新订阅成功时立即比对一次，不等待检查周期。
+ * <p>
+ * 区域的 {@link InvalidationListener#evictAll()} 因此也是"可能漏收事件"的通知：
+ * 本地镜像（布隆过滤器等）应在其中丢弃或重建，而不是只依赖逐条事件。
+ */
+@Component
+public class InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private static final String INVALIDATION_TOPIC = "topic:cache:invalidation";
+
+    /**
+     * 全局失效纪元计数器
+     */
+    private static final String EPOCH_KEY = "cache:invalidation:epoch";
+
+    private final RedisService redisService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 本节点标识
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<CacheRegion, List<InvalidationListener>> listeners = new ConcurrentHashMap<>();
+
+    /**
+     * 已连续收到（或发布）的最大纪元，为 -1 表示尚未与 Redis 对齐
+     */
+    private long contiguousEpoch = -1;
+
+    /**
+     * 已收到但前面还有缺口的纪元
+     */
+    private final TreeSet<Long> pendingEpochs = new TreeSet<>();
+
+    /**
+     * 上次检查时 Redis 中的纪元（超过 contiguousEpoch 时记录，下次检查仍未收到即判定丢失）
+     */
+    private long suspectEpoch;
+
+    private final Counter missedCounter;
+
+    public InvalidationBus(RedisService redisService, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.redisService = redisService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.missedCounter = Counter.builder("wms.invalidation.missed")
+                .description("检测到失效事件丢失、全部区域失效的次数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            redisService.subscribe(INVALIDATION_TOPIC, this::onMessage);
+            redisService.onSubscribed(INVALIDATION_TOPIC, () -> CompletableFuture.runAsync(this::onResubscribed));
+        } catch (Exception e) {
+            log.error("订阅缓存失效主题失败: {}", e.getMessage(), e);
+        }
+        alignEpoch();
+    }
+
+    /**
+     * 注册区域的失效回调
+     */
+    public void subscribe(CacheRegion region, InvalidationListener listener) {
+        listeners.computeIfAbsent(region, r -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * 发布失效事件（事务提交后发布，没有活动事务时立即发布）
+     *
+     * @param keys 失效的键，为空表示整个区域失效
+     */
+    public void publish(CacheRegion region, String... keys) {
+        List<String> keyList = List.of(keys);
+        TransactionUtil.afterCommit(() -> doPublish(region, keyList));
+    }
+
+    /**
+     * 检查是否有未收到的纪元，兜底丢失的事件
+     */
+    @Scheduled(initialDelayString = "${wms.invalidation.epoch-check-interval:PT10S}",
+            fixedDelayString = "${wms.invalidation.epoch-check-interval:PT10S}")
+    public void checkEpoch() {
+        long remote;
+        try {
+            remote = redisService.getCounter(EPOCH_KEY);
+        } catch (Exception e) {
+            log.warn("读取缓存失效纪元失败: {}", e.getMessage());
+            return;
+        }
+        synchronized (pendingEpochs) {
+            if (contiguousEpoch < 0) {
+                contiguousEpoch = remote;
+                return;
+            }
+            if (suspectEpoch > contiguousEpoch) {
+                log.warn("缓存失效事件丢失，失效全部区域: received={}, expected={}", contiguousEpoch, suspectEpoch);
+                missedCounter.increment();
+                contiguousEpoch = Math.max(remote, suspectEpoch);
+                pendingEpochs.headSet(contiguousEpoch, true).clear();
+                evictAllRegions();
+            }
+            suspectEpoch = remote > contiguousEpoch ? remote : 0;
+        }
+    }
+
+    /**
+     * 重新订阅后比对纪元：断开期间发布的事件已无法收到，Redis 纪元超前时立即失效全部区域
+     */
+    private void onResubscribed() {
+        long remote;
+        try {
+            remote = redisService.getCounter(EPOCH_KEY);
+        } catch (Exception e) {
+            log.warn("重新订阅后读取缓存失效纪元失败，等待定期检查: {}", e.getMessage());
+            return;
+        }
+        synchronized (pendingEpochs) {
+            // 首次订阅时尚未对齐，由 alignEpoch 处理
+            if (contiguousEpoch < 0 || remote <= contiguousEpoch) {
+                return;
+            }
+            log.warn("缓存失效主题重新订阅，断开期间的事件已丢失，失效全部区域: received={}, current={}",
+                    contiguousEpoch, remote);
+            missedCounter.increment();
+            contiguousEpoch = remote;
+            pendingEpochs.headSet(contiguousEpoch, true).clear();
+            suspectEpoch = 0;
+            evictAllRegions();
+        }
+    }
+
+    private void doPublish(CacheRegion region, List<String> keys) {
+        long epoch = 0;
+        try {
+            epoch = redisService.increment(EPOCH_KEY);
+            markSeen(epoch);
+        } catch (Exception e) {
+            log.error("递增缓存失效纪元失败: {}", e.getMessage(), e);
+        }
+        try {
+            InvalidationEvent event = new InvalidationEvent(region, keys, nodeId, epoch, System.currentTimeMillis());
+            redisService.publish(INVALIDATION_TOPIC, objectMapper.writeValueAsString(event));
+            Counter.builder("wms.invalidation.published")
+                    .description("发布的缓存失效事件数")
+                    .tag("region", region.name())
+                    .register(meterRegistry)
+                    .increment();
+        } catch (Exception e) {
+            // 纪元已递增，其他节点将在检查周期后判定丢失并整体失效
+            log.error("发布缓存失效事件失败: region={}, keys={}, error={}", region, keys, e.getMessage(), e);
+        }
+    }
+
+    private void onMessage(String message) {
+        InvalidationEvent event;
+        try {
+            event = objectMapper.readValue(message, InvalidationEvent.class);
+        } catch (JsonProcessingException e) {
+            log.warn("无法解析缓存失效事件: {}", message);
+            return;
+        }
+        if (nodeId.equals(event.origin())) {
+            return;
+        }
+        Timer.builder("wms.invalidation.propagation")
+                .description("缓存失效事件从发布到本节点处理的延迟（受节点间时钟偏差影响）")
+                .tag("region", event.region().name())
+                .register(meterRegistry)
+                .record(Math.max(0, System.currentTimeMillis() - event.publishedAt()), TimeUnit.MILLISECONDS);
+
+        dispatch(event.region(), event.keys());
+        if (event.epoch() > 0) {
+            markSeen(event.epoch());
+        }
+    }
+
+    private void dispatch(CacheRegion region, List<String> keys) {
+        for (InvalidationListener listener : listeners.getOrDefault(region, List.of())) {
+            try {
+                if (keys == null || keys.isEmpty()) {
+                    listener.evictAll();
+                } else {
+                    listener.evict(keys);
+                }
+            } catch (Exception e) {
+                log.error("处理缓存失效事件失败，区域整体失效: region={}, error={}", region, e.getMessage(), e);
+                listener.evictAll();
+            }
+        }
+    }
+
+    private void evictAllRegions() {
+        listeners.forEach((region, regionListeners) -> regionListeners.forEach(listener -> {
+            try {
+                listener.evictAll();
+            } catch (Exception e) {
+                log.error("失效缓存区域失败: region={}, error={}", region, e.getMessage(), e);
+            }
+        }));
+    }
+
+    private void markSeen(long epoch) {
+        synchronized (pendingEpochs) {
+            if (contiguousEpoch < 0 || epoch <= contiguousEpoch) {
+                return;
+            }
+            pendingEpochs.add(epoch);
+            while (pendingEpochs.remove(contiguousEpoch + 1)) {
+                contiguousEpoch++;
+            }
+        }
+    }
+
+    private void alignEpoch() {
+        try {
+            long remote = redisService.getCounter(EPOCH_KEY);
+            synchronized (pendingEpochs) {
+                contiguousEpoch = remote;
+            }
+        } catch (Exception e) {
+            log.error("读取缓存失效纪元失败，首次检查时对齐: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.cache;
+
+import java.util.List;
+
+/**
+ * 缓存失效事件（不可变）
+ *
+ * @param region      缓存区域
+ * @param keys        失效的键，为空表示整个区域失效
+ * @param origin      发布节点标识，节点忽略自己发布的事件
+ * @param epoch       全局失效纪元（Redis 计数器，连续递增），为 0 表示发布时未取到纪元
+ * @param publishedAt 发布时间（epoch 毫秒），用于统计传播延迟
+ */
+public record InvalidationEvent(CacheRegion region, List<String> keys, String origin, long epoch, long publishedAt) {
+}
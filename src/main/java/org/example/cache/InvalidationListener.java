@@ -0,0 +1,19 @@
+package org.example.cache;
+
+import java.util.List;
+
+/**
+ * 缓存区域的失效回调，在 Redisson 消息线程中执行
+ */
+public interface InvalidationListener {
+
+    /**
+     * 精确失效指定键
+     */
+    void evict(List<String> keys);
+
+    /**
+     * 失效整个区域（事件丢失时的兜底）
+     */
+    void evictAll();
+}
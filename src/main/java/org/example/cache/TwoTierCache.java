@@ -0,0 +1,276 @@
+package org.example.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.util.TransactionUtil;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 两级读穿透缓存（本地 Caffeine + 共享 Redis）
+ * <p>
+ * 读：本地命中直接返回；未命中时查共享层，仍未命中再调用加载函数查数据库，结果依次写回两级。
+ * 同一节点上同一键的并发未命中只加载一次（Caffeine 按键原子计算），其余请求等待结果。
+ * 加载结果为 null 时不缓存。
+ * <p>
+ * 写：调用方在写库后调用 {@link #evict}，事务提交后先删共享层、再删本地条目，
+ * 并通过 {@link InvalidationBus} 通知其他节点删除本地条目。
+ * 先删本地会让同节点的并发读在共享层删除前把旧值重新读回本地，顺序不能颠倒。
+ * 读取共享层或加载期间发生过失效时，共享层读到的值视为未命中，加载到的值不写回共享层。
+ * <p>
+ * 本地失效计数只能发现本节点的失效，其他节点的写可能发生在本节点加载期间。为此共享层每个键带版本号：
+ * 删除条目时版本加一，读穿透在查库前读取版本，写回时以 Lua 脚本比较版本，版本变化则放弃写回，
+ * 不会把其他节点写库前加载到的旧值写入共享层。整个区域失效时递增区域纪元，写回同样比较。
+ * <p>
+ * 共享层 Key（区域名作为哈希标签，同一区域位于同一槽位）：
+ * cache:{区域}:v:{键} 值（JSON），cache:{区域}:ver:{键} 键版本，cache:{区域}:epoch 区域纪元。
+ * <p>
+ * 缓存的实体为可变对象，每次读取返回浅拷贝，调用方修改返回值不影响缓存。
+ *
+ * @param <V> 缓存值类型（需有无参构造方法）
+ */
+public final class TwoTierCache<V> {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoTierCache.class);
+
+    /**
+     * 版本未变时写入：KEYS = 值, 键版本, 区域纪元；ARGV = 读取时的键版本, 区域纪元（不存在为空串）, TTL 毫秒, 值
+     */
+    private static final String PUT_IF_VERSION_SCRIPT =
+            "if (redis.call('get', KEYS[2]) or '') == ARGV[1] and (redis.call('get', KEYS[3]) or '') == ARGV[2] then "
+                    + "redis.call('set', KEYS[1], ARGV[4], 'px', ARGV[3]); "
+                    + "return 1; "
+                    + "end; "
+                    + "return 0;";
+
+    /**
+     * 删除条目并递增版本：KEYS = 值1, 版本1, 值2, 版本2, ...；ARGV = 版本 TTL 毫秒
+     * 版本只需比进行中的加载活得久，随共享层 TTL 过期
+     */
+    private static final String EVICT_SCRIPT =
+            "for i = 1, #KEYS, 2 do "
+                    + "redis.call('del', KEYS[i]); "
+                    + "redis.call('incr', KEYS[i + 1]); "
+                    + "redis.call('pexpire', KEYS[i + 1], ARGV[1]); "
+                    + "end; "
+                    + "return #KEYS / 2;";
+
+    private final CacheRegion region;
+    private final Class<V> type;
+    private final Cache<String, V> local;
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+    private final long sharedTtlMillis;
+    private final String keyPrefix;
+    private final InvalidationBus invalidationBus;
+
+    /**
+     * 失效计数，加载期间有失效时不写回共享层
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter localHits;
+    private final Counter sharedHits;
+    private final Counter misses;
+    private final Counter sharedErrors;
+    private final Timer loadTimer;
+
+    TwoTierCache(CacheRegion region, Class<V> type, Cache<String, V> local,
+                 RedissonClient redissonClient, ObjectMapper objectMapper, Duration sharedTtl,
+                 InvalidationBus invalidationBus, MeterRegistry meterRegistry) {
+        String name = region.name().toLowerCase();
+        this.region = region;
+        this.type = type;
+        this.local = local;
+        this.redissonClient = redissonClient;
+        this.objectMapper = objectMapper;
+        this.sharedTtlMillis = sharedTtl.toMillis();
+        this.keyPrefix = "cache:{" + name + "}:";
+        this.invalidationBus = invalidationBus;
+
+        this.localHits = requests(meterRegistry, name, "local_hit");
+        this.sharedHits = requests(meterRegistry, name, "shared_hit");
+        this.misses = requests(meterRegistry, name, "miss");
+        this.sharedErrors = Counter.builder("wms.cache.shared.errors")
+                .description("共享缓存访问失败次数（失败时直接查数据库）")
+                .tag("region", name)
+                .register(meterRegistry);
+        this.loadTimer = Timer.builder("wms.cache.load")
+                .description("缓存未命中时数据库加载耗时")
+                .tag("region", name)
+                .register(meterRegistry);
+
+        invalidationBus.subscribe(region, new InvalidationListener() {
+            @Override
+            public void evict(List<String> keys) {
+                invalidations.incrementAndGet();
+                local.invalidateAll(keys);
+            }
+
+            @Override
+            public void evictAll() {
+                invalidations.incrementAndGet();
+                local.invalidateAll();
+            }
+        });
+    }
+
+    /**
+     * 读取缓存，未命中时加载
+     *
+     * @param key    键
+     * @param loader 从数据库加载，不存在时返回 null
+     * @return 缓存值的拷贝，不存在时返回 null
+     */
+    public V get(Object key, Supplier<V> loader) {
+        if (key == null) {
+            return null;
+        }
+        String cacheKey = key.toString();
+        boolean[] loaded = new boolean[1];
+        V value = local.get(cacheKey, k -> {
+            loaded[0] = true;
+            return loadThrough(k, loader);
+        });
+        if (!loaded[0]) {
+            localHits.increment();
+        }
+        return value != null ? copy(value) : null;
+    }
+
+    /**
+     * 写库后失效指定键（事务提交后执行，并通知其他节点）
+     */
+    public void evict(Object... keys) {
+        String[] cacheKeys = Arrays.stream(keys)
+                .filter(Objects::nonNull)
+                .map(Object::toString)
+                .toArray(String[]::new);
+        if (cacheKeys.length == 0) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            invalidations.incrementAndGet();
+            try {
+                List<Object> redisKeys = new ArrayList<>(cacheKeys.length * 2);
+                for (String cacheKey : cacheKeys) {
+                    redisKeys.add(valueKey(cacheKey));
+                    redisKeys.add(versionKey(cacheKey));
+                }
+                script().eval(RScript.Mode.READ_WRITE, EVICT_SCRIPT, RScript.ReturnType.INTEGER,
+                        redisKeys, String.valueOf(sharedTtlMillis));
+            } catch (Exception e) {
+                sharedErrors.increment();
+                log.error("删除共享缓存失败，等待过期: region={}, keys={}, error={}",
+                        region, Arrays.toString(cacheKeys), e.getMessage(), e);
+            }
+            // 共享层删除后再删本地：正在加载的读要么已在删除前完成（被这里删掉），要么读不到旧值
+            local.invalidateAll(List.of(cacheKeys));
+        });
+        invalidationBus.publish(region, cacheKeys);
+    }
+
+    /**
+     * 批量写库后失效整个区域（事务提交后执行，并通知其他节点）
+     */
+    public void evictAll() {
+        TransactionUtil.afterCommit(() -> {
+            invalidations.incrementAndGet();
+            try {
+                // 先递增纪元，之后加载的写回全部作废，再删除现有条目
+                redissonClient.getAtomicLong(epochKey()).incrementAndGet();
+                redissonClient.getKeys().deleteByPattern(keyPrefix + "v:*");
+            } catch (Exception e) {
+                sharedErrors.increment();
+                log.error("清空共享缓存失败，等待过期: region={}, error={}", region, e.getMessage(), e);
+            }
+            local.invalidateAll();
+        });
+        invalidationBus.publish(region);
+    }
+
+    private V loadThrough(String key, Supplier<V> loader) {
+        long stamp = invalidations.get();
+        // 值、键版本、区域纪元一次读取；版本须在查库之前读取
+        Map<String, String> sharedState = null;
+        try {
+            Map<String, String> state = redissonClient.getBuckets(StringCodec.INSTANCE)
+                    .get(valueKey(key), versionKey(key), epochKey());
+            sharedState = state;
+            String json = state.get(valueKey(key));
+            // 读取期间发生过失效时，读到的可能是删除前的旧值，改查数据库
+            if (json != null && invalidations.get() == stamp) {
+                V cached = objectMapper.readValue(json, type);
+                sharedHits.increment();
+                return cached;
+            }
+        } catch (Exception e) {
+            sharedErrors.increment();
+            log.warn("读取共享缓存失败，直接查询数据库: region={}, key={}, error={}", region, key, e.getMessage());
+        }
+
+        misses.increment();
+        V value = loadTimer.record(loader);
+        // 共享层读取失败时不知道版本，不写回
+        if (value != null && sharedState != null && invalidations.get() == stamp) {
+            try {
+                script().eval(RScript.Mode.READ_WRITE, PUT_IF_VERSION_SCRIPT, RScript.ReturnType.INTEGER,
+                        List.of(valueKey(key), versionKey(key), epochKey()),
+                        sharedState.getOrDefault(versionKey(key), ""),
+                        sharedState.getOrDefault(epochKey(), ""),
+                        String.valueOf(sharedTtlMillis),
+                        objectMapper.writeValueAsString(value));
+            } catch (Exception e) {
+                sharedErrors.increment();
+                log.warn("写入共享缓存失败: region={}, key={}, error={}", region, key, e.getMessage());
+            }
+        }
+        return value;
+    }
+
+    private RScript script() {
+        return redissonClient.getScript(StringCodec.INSTANCE);
+    }
+
+    private String valueKey(String key) {
+        return keyPrefix + "v:" + key;
+    }
+
+    private String versionKey(String key) {
+        return keyPrefix + "ver:" + key;
+    }
+
+    private String epochKey() {
+        return keyPrefix + "epoch";
+    }
+
+    private V copy(V value) {
+        V copy = BeanUtils.instantiateClass(type);
+        BeanUtils.copyProperties(value, copy);
+        return copy;
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String region, String result) {
+        return Counter.builder("wms.cache.requests")
+                .description("缓存请求数")
+                .tag("region", region)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
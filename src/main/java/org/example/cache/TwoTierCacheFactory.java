@@ -0,0 +1,65 @@
+package org.example.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 两级缓存工厂
+ * <p>
+ * 每个区域按 wms.cache.{区域}.* 配置：
+ * local-max-size 本地条目上限（Caffeine W-TinyLFU 淘汰），local-ttl 本地写入后存活时间，
+ * shared-ttl 共享层（Redis，Key 为 cache:{区域}:*，见 {@link TwoTierCache}）条目存活时间。
+ */
+@Component
+public class TwoTierCacheFactory {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoTierCacheFactory.class);
+
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+    private final InvalidationBus invalidationBus;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+
+    public TwoTierCacheFactory(RedissonClient redissonClient, ObjectMapper objectMapper,
+                               InvalidationBus invalidationBus, MeterRegistry meterRegistry,
+                               Environment environment) {
+        this.redissonClient = redissonClient;
+        this.objectMapper = objectMapper;
+        this.invalidationBus = invalidationBus;
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+    }
+
+    public <V> TwoTierCache<V> create(CacheRegion region, Class<V> type) {
+        String name = region.name().toLowerCase();
+        String prefix = "wms.cache." + name + ".";
+        long localMaxSize = environment.getProperty(prefix + "local-max-size", Long.class, 10_000L);
+        Duration localTtl = environment.getProperty(prefix + "local-ttl", Duration.class, Duration.ofMinutes(5));
+        Duration sharedTtl = environment.getProperty(prefix + "shared-ttl", Duration.class, Duration.ofMinutes(30));
+
+        Cache<String, V> local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .build();
+        Gauge.builder("wms.cache.local.size", local, Cache::estimatedSize)
+                .description("本地缓存条目数")
+                .tag("region", name)
+                .register(meterRegistry);
+
+        log.info("两级缓存: region={}, localMaxSize={}, localTtl={}, sharedTtl={}",
+                name, localMaxSize, localTtl, sharedTtl);
+        return new TwoTierCache<>(region, type, local, redissonClient, objectMapper, sharedTtl,
+                invalidationBus, meterRegistry);
+    }
+}
@@ -2,6 +2,7 @@ package org.example.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.annotation.RequirePermission;
 import org.example.dto.*;
 import org.example.service.AuthService;
 import org.slf4j.Logger;
@@ -10,6 +11,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * 认证控制器
  * 使用构造器注入，完全解耦
@@ -33,29 +37,33 @@ public class AuthController {
      */
     @PostMapping("/login")
     @Operation(summary = "用户登录", description = "验证用户名和密码，返回JWT Token")
-    public ResponseEntity<ApiResponse<LoginResponse>> login(@RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<ApiResponse<LoginResponse>>> login(@RequestBody LoginRequest request) {
         log.info("收到登录请求: username={}", request.getUsername());
 
         if (request.getUsername() == null || request.getUsername().trim().isEmpty()) {
             log.warn("登录请求失败: 用户名为空");
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error(400, "用户名不能为空"));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "用户名不能为空")));
         }
         if (request.getPassword() == null || request.getPassword().trim().isEmpty()) {
             log.warn("登录请求失败: 密码为空");
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error(400, "密码不能为空"));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "密码不能为空")));
         }
 
-        LoginResponse loginResponse = authService.login(request);
-
-        if (loginResponse.isSuccess()) {
-            log.info("登录成功: username={}, userId={}", request.getUsername(), loginResponse.getUserId());
-            return ResponseEntity.ok(ApiResponse.success("登录成功", loginResponse));
-        } else {
-            log.warn("登录失败: username={}, reason={}", request.getUsername(), loginResponse.getMessage());
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(ApiResponse.error(401, loginResponse.getMessage()));
+        try {
+            // 密码校验完成后在哈希线程上组装响应，请求线程立即释放
+            return authService.login(request).thenApply(loginResponse -> {
+                if (loginResponse.isSuccess()) {
+                    log.info("登录成功: username={}, userId={}", request.getUsername(), loginResponse.getUserId());
+                    return ResponseEntity.ok(ApiResponse.success("登录成功", loginResponse));
+                }
+                log.warn("登录失败: username={}, reason={}", request.getUsername(), loginResponse.getMessage());
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(ApiResponse.<LoginResponse>error(401, loginResponse.getMessage()));
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(serviceBusy());
         }
     }
 
@@ -79,13 +87,18 @@ public class AuthController {
                     .body(ApiResponse.error(400, "密码不能为空"));
         }
 
-        boolean success = authService.register(
-                request.getUsername(),
-                request.getPassword(),
-                request.getRealName(),
-                request.getEmail(),
-                request.getPhone()
-        );
+        boolean success;
+        try {
+            success = authService.register(
+                    request.getUsername(),
+                    request.getPassword(),
+                    request.getRealName(),
+                    request.getEmail(),
+                    request.getPhone()
+            );
+        } catch (RejectedExecutionException e) {
+            return serviceBusy();
+        }
 
         if (success) {
             log.info("注册成功: username={}", request.getUsername());
@@ -188,6 +201,34 @@ public class AuthController {
         }
     }
 
+    /**
+     * 吊销用户所有会话
+     */
+    @PostMapping("/users/{userId}/revoke-sessions")
+    @Operation(summary = "吊销用户所有会话", description = "使该用户此前签发的所有Token立即失效")
+    @RequirePermission("system:user:edit")
+    public ResponseEntity<ApiResponse<Void>> revokeAllSessions(@PathVariable String userId) {
+        log.info("吊销用户所有会话: userId={}", userId);
+
+        try {
+            authService.revokeAllSessions(userId);
+            return ResponseEntity.ok(ApiResponse.success("吊销成功", null));
+        } catch (Exception e) {
+            log.error("吊销用户会话失败: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "吊销失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 密码哈希线程池饱和
+     */
+    private static <T> ResponseEntity<ApiResponse<T>> serviceBusy() {
+        log.warn("密码哈希线程池饱和，返回 503");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ApiResponse.error(503, "服务繁忙，请稍后重试"));
+    }
+
     /**
      * Token 验证响应
      */
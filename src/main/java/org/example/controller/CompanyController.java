@@ -8,10 +8,12 @@ import org.example.service.DepartmentService;
 import org.example.service.PostService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/company")
@@ -19,6 +21,12 @@ import java.util.List;
 public class CompanyController {
 
     private static final Logger log = LoggerFactory.getLogger(CompanyController.class);
+
+    /**
+     * 游标分页单页最大条数
+     */
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final CompanyService companyService;
     private final DepartmentService departmentService;
     private final PostService postService;
@@ -42,6 +50,10 @@ public class CompanyController {
         try {
             CompanyResponse response = companyService.createCompany(request);
             return ResponseEntity.ok(ApiResponse.success("创建成功", response));
+        } catch (RejectedExecutionException e) {
+            log.warn("创建公司失败: 密码哈希线程池饱和");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ApiResponse.error(503, "服务繁忙，请稍后重试"));
         } catch (Exception e) {
             log.error("创建公司失败: {}", e.getMessage());
             return ResponseEntity.badRequest().body(ApiResponse.error(400, e.getMessage()));
@@ -125,13 +137,24 @@ public class CompanyController {
 
     /**
      * 获取公司下的所有岗位
+     * 传入 limit 时按岗位ID游标分页，下一页以本页最后一条的 postId 作为 afterPostId
      */
     @GetMapping("/{companyId}/posts")
-    @Operation(summary = "获取公司岗位列表", description = "获取公司下所有部门的岗位列表")
+    @Operation(summary = "获取公司岗位列表", description = "获取公司下所有部门的岗位列表，传入limit时按岗位ID游标分页")
     public ResponseEntity<ApiResponse<List<PostResponse>>> getCompanyPosts(
-            @PathVariable Long companyId) {
-        log.info("获取公司岗位列表: companyId={}", companyId);
-        List<PostResponse> posts = postService.getPostsByCompanyId(companyId);
+            @PathVariable Long companyId,
+            @RequestParam(required = false) Long afterPostId,
+            @RequestParam(required = false) Integer limit) {
+        log.info("获取公司岗位列表: companyId={}, afterPostId={}, limit={}", companyId, afterPostId, limit);
+        if (limit == null) {
+            List<PostResponse> posts = postService.getPostsByCompanyId(companyId);
+            return ResponseEntity.ok(ApiResponse.success("获取成功", posts));
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, "limit 取值范围为 1-" + MAX_PAGE_SIZE));
+        }
+        List<PostResponse> posts = postService.getPostsByCompanyId(companyId, afterPostId, limit);
         return ResponseEntity.ok(ApiResponse.success("获取成功", posts));
     }
 }
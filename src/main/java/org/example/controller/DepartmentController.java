@@ -2,6 +2,7 @@ package org.example.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.annotation.RequirePermission;
 import org.example.dto.ApiResponse;
 import org.example.dto.CreateDepartmentRequest;
 import org.example.dto.DepartmentResponse;
@@ -212,5 +213,67 @@ public class DepartmentController {
                     .body(ApiResponse.error(400, e.getMessage()));
         }
     }
-}
 
+    /**
+     * 获取子孙部门
+     */
+    @GetMapping("/{departmentId}/descendants")
+    @Operation(summary = "获取子孙部门", description = "获取指定部门下所有层级的子孙部门")
+    public ResponseEntity<ApiResponse<List<DepartmentResponse>>> getDescendantDepartments(
+            @PathVariable Long departmentId) {
+
+        log.info("获取子孙部门: departmentId={}", departmentId);
+
+        List<DepartmentResponse> descendants = departmentService.getDescendantDepartments(departmentId);
+        return ResponseEntity.ok(ApiResponse.success("获取成功", descendants));
+    }
+
+    /**
+     * 获取祖先部门
+     */
+    @GetMapping("/{departmentId}/ancestors")
+    @Operation(summary = "获取祖先部门", description = "获取指定部门从根到直接父部门的所有祖先部门")
+    public ResponseEntity<ApiResponse<List<DepartmentResponse>>> getAncestorDepartments(
+            @PathVariable Long departmentId) {
+
+        log.info("获取祖先部门: departmentId={}", departmentId);
+
+        List<DepartmentResponse> ancestors = departmentService.getAncestorDepartments(departmentId);
+        return ResponseEntity.ok(ApiResponse.success("获取成功", ancestors));
+    }
+
+    /**
+     * 校验部门层级索引
+     */
+    @GetMapping("/hierarchy-index/verify")
+    @RequirePermission("system:dept")
+    @Operation(summary = "校验部门层级索引", description = "比对闭包表与 parent_id 实际层级，返回差异行数")
+    public ResponseEntity<ApiResponse<Long>> verifyHierarchyIndex() {
+        try {
+            long mismatches = departmentService.verifyHierarchyIndex();
+            String message = mismatches == 0 ? "层级索引一致" : "层级索引不一致，请重建";
+            return ResponseEntity.ok(ApiResponse.success(message, mismatches));
+        } catch (Exception e) {
+            log.error("校验部门层级索引失败: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        }
+    }
+
+    /**
+     * 重建部门层级索引
+     */
+    @PostMapping("/hierarchy-index/rebuild")
+    @RequirePermission("system:dept")
+    @Operation(summary = "重建部门层级索引", description = "按 parent_id 全量重建闭包表，返回写入行数")
+    public ResponseEntity<ApiResponse<Integer>> rebuildHierarchyIndex() {
+        try {
+            int rows = departmentService.rebuildHierarchyIndex();
+            return ResponseEntity.ok(ApiResponse.success("重建成功", rows));
+        } catch (Exception e) {
+            log.error("重建部门层级索引失败: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        }
+    }
+}
@@ -101,8 +101,8 @@ public class MenuController {
      */
     @GetMapping("/user/{userId}/tree")
     @Operation(summary = "获取用户菜单树", description = "根据用户权限获取菜单树")
-    public ResponseEntity<ApiResponse<List<MenuResponse>>> getUserMenuTree(@PathVariable String userId) {
-        List<MenuResponse> tree = menuService.getUserMenuTree(userId);
+    public ResponseEntity<ApiResponse<RawJson>> getUserMenuTree(@PathVariable String userId) {
+        RawJson tree = menuService.getUserMenuTreePayload(userId);
         return ResponseEntity.ok(ApiResponse.success("获取成功", tree));
     }
 
@@ -111,8 +111,8 @@ public class MenuController {
      */
     @GetMapping("/user/{userId}/routes")
     @Operation(summary = "获取用户动态路由", description = "获取用户的前端动态路由配置")
-    public ResponseEntity<ApiResponse<List<UserRouteResponse>>> getUserRoutes(@PathVariable String userId) {
-        List<UserRouteResponse> routes = menuService.getUserRoutes(userId);
+    public ResponseEntity<ApiResponse<RawJson>> getUserRoutes(@PathVariable String userId) {
+        RawJson routes = menuService.getUserRoutesPayload(userId);
         return ResponseEntity.ok(ApiResponse.success("获取成功", routes));
     }
 
@@ -154,7 +154,7 @@ public class MenuController {
     @PostMapping("/assign")
     @Operation(summary = "分配岗位权限", description = "为岗位分配菜单权限")
     @RequirePermission("system:menu:assign")
-    public ResponseEntity<ApiResponse<Void>> assignMenuPermissions(@RequestBody AssignMenuPermRequest request) {
+    public ResponseEntity<ApiResponse<AssignResult>> assignMenuPermissions(@RequestBody AssignMenuPermRequest request) {
         log.info("分配岗位权限: postId={}", request.getPostId());
 
         if (request.getPostId() == null) {
@@ -163,8 +163,8 @@ public class MenuController {
         }
 
         try {
-            menuService.assignMenuPermissions(request);
-            return ResponseEntity.ok(ApiResponse.success("权限分配成功", null));
+            AssignResult result = menuService.assignMenuPermissions(request);
+            return ResponseEntity.ok(ApiResponse.success("权限分配成功", result));
         } catch (Exception e) {
             log.error("权限分配失败: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.example.dto.ApiResponse;
 import org.example.dto.AssignPostRequest;
+import org.example.dto.AssignResult;
 import org.example.dto.CreatePostRequest;
 import org.example.dto.PostResponse;
 import org.example.service.PostService;
@@ -75,7 +76,7 @@ public class PostController {
 
     @PostMapping("/assign")
     @Operation(summary = "分配用户岗位", description = "为用户分配一个或多个岗位（角色）")
-    public ResponseEntity<ApiResponse<Void>> assignPostsToUser(@RequestBody AssignPostRequest request) {
+    public ResponseEntity<ApiResponse<AssignResult>> assignPostsToUser(@RequestBody AssignPostRequest request) {
         log.info("分配岗位: userId={}, postIds={}", request.getUserId(), request.getPostIds());
 
         if (request.getUserId() == null || request.getUserId().trim().isEmpty()) {
@@ -83,8 +84,8 @@ public class PostController {
         }
 
         try {
-            postService.assignPostsToUser(request);
-            return ResponseEntity.ok(ApiResponse.success("岗位分配成功", null));
+            AssignResult result = postService.assignPostsToUser(request);
+            return ResponseEntity.ok(ApiResponse.success("岗位分配成功", result));
         } catch (Exception e) {
             log.error("岗位分配失败: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
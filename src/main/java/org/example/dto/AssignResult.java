@@ -0,0 +1,62 @@
+package org.example.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 关联分配结果（差量）
+ * 记录本次分配实际新增、变更、移除的目标ID，供调用方精确失效缓存
+ */
+public class AssignResult {
+
+    /**
+     * 新增的ID
+     */
+    private final List<Long> added;
+
+    /**
+     * 变更的ID（如权限类型变化）
+     */
+    private final List<Long> updated;
+
+    /**
+     * 移除的ID
+     */
+    private final List<Long> removed;
+
+    public AssignResult(List<Long> added, List<Long> updated, List<Long> removed) {
+        this.added = added;
+        this.updated = updated;
+        this.removed = removed;
+    }
+
+    public List<Long> getAdded() {
+        return added;
+    }
+
+    public List<Long> getUpdated() {
+        return updated;
+    }
+
+    public List<Long> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * 是否有任何变化
+     */
+    public boolean hasChanges() {
+        return !added.isEmpty() || !updated.isEmpty() || !removed.isEmpty();
+    }
+
+    /**
+     * 所有发生变化的ID
+     */
+    public List<Long> changedIds() {
+        List<Long> ids = new ArrayList<>(added.size() + updated.size() + removed.size());
+        ids.addAll(added);
+        ids.addAll(updated);
+        ids.addAll(removed);
+        return ids;
+    }
+}
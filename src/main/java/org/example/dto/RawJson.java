@@ -0,0 +1,23 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * 预序列化的 JSON 片段
+ * 作为响应数据时原样写出，不再经过 Jackson 反射序列化
+ */
+public class RawJson {
+
+    private final String json;
+
+    public RawJson(String json) {
+        this.json = json;
+    }
+
+    @JsonValue
+    @JsonRawValue
+    public String getJson() {
+        return json;
+    }
+}
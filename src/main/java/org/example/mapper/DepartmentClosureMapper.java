@@ -0,0 +1,100 @@
+package org.example.mapper;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.example.entity.SysDepartment;
+
+import java.util.List;
+
+/**
+ * 部门层级闭包表 Mapper（sys_department_closure）
+ */
+@Mapper
+public interface DepartmentClosureMapper {
+
+    /**
+     * 由 sys_department 递归计算的期望闭包（p.depth < 1000 防止数据中存在环时无限递归）
+     */
+    String EXPECTED_PATHS = "WITH RECURSIVE paths AS (" +
+            "  SELECT department_id AS ancestor_id, department_id AS descendant_id, 0 AS depth FROM sys_department " +
+            "  UNION ALL " +
+            "  SELECT p.ancestor_id, d.department_id, p.depth + 1 FROM paths p " +
+            "  JOIN sys_department d ON d.parent_id = p.descendant_id WHERE p.depth < 1000" +
+            ") ";
+
+    /**
+     * 新部门：继承父部门的全部祖先，再加上自身
+     */
+    @Insert("INSERT INTO sys_department_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT ancestor_id, #{departmentId}, depth + 1 FROM sys_department_closure " +
+            "WHERE descendant_id = #{parentId} " +
+            "UNION ALL SELECT #{departmentId}, #{departmentId}, 0")
+    int insertNode(@Param("departmentId") Long departmentId, @Param("parentId") Long parentId);
+
+    /**
+     * 移动前：断开子树（含自身）与原祖先（不含自身）之间的关系
+     */
+    @Delete("DELETE FROM sys_department_closure c " +
+            "USING sys_department_closure sub, sys_department_closure anc " +
+            "WHERE sub.ancestor_id = #{departmentId} AND c.descendant_id = sub.descendant_id " +
+            "AND anc.descendant_id = #{departmentId} AND anc.depth > 0 AND c.ancestor_id = anc.ancestor_id")
+    int detachSubtree(@Param("departmentId") Long departmentId);
+
+    /**
+     * 移动后：子树（含自身）连接到新父部门及其全部祖先
+     */
+    @Insert("INSERT INTO sys_department_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT anc.ancestor_id, sub.descendant_id, anc.depth + sub.depth + 1 " +
+            "FROM sys_department_closure anc, sys_department_closure sub " +
+            "WHERE anc.descendant_id = #{newParentId} AND sub.ancestor_id = #{departmentId}")
+    int attachSubtree(@Param("departmentId") Long departmentId, @Param("newParentId") Long newParentId);
+
+    @Delete("DELETE FROM sys_department_closure WHERE descendant_id = #{departmentId}")
+    int deleteNode(@Param("departmentId") Long departmentId);
+
+    /**
+     * 子孙部门（不含自身），按层级距离排序
+     */
+    @Select("SELECT d.* FROM sys_department_closure c " +
+            "JOIN sys_department d ON d.department_id = c.descendant_id " +
+            "WHERE c.ancestor_id = #{departmentId} AND c.depth > 0 " +
+            "ORDER BY c.depth, d.department_id")
+    List<SysDepartment> selectDescendants(@Param("departmentId") Long departmentId);
+
+    /**
+     * 祖先部门（不含自身），从根到直接父部门
+     */
+    @Select("SELECT d.* FROM sys_department_closure c " +
+            "JOIN sys_department d ON d.department_id = c.ancestor_id " +
+            "WHERE c.descendant_id = #{departmentId} AND c.depth > 0 " +
+            "ORDER BY c.depth DESC")
+    List<SysDepartment> selectAncestors(@Param("departmentId") Long departmentId);
+
+    @Select("SELECT EXISTS (SELECT 1 FROM sys_department_closure " +
+            "WHERE ancestor_id = #{ancestorId} AND descendant_id = #{descendantId})")
+    boolean existsPath(@Param("ancestorId") Long ancestorId, @Param("descendantId") Long descendantId);
+
+    /**
+     * 闭包表与 sys_department 实际层级的差异行数（缺失 + 多余），0 表示一致
+     */
+    @Select(EXPECTED_PATHS +
+            "SELECT (SELECT COUNT(*) FROM (SELECT ancestor_id, descendant_id, depth FROM paths " +
+            "        EXCEPT SELECT ancestor_id, descendant_id, depth FROM sys_department_closure) missing) " +
+            "     + (SELECT COUNT(*) FROM (SELECT ancestor_id, descendant_id, depth FROM sys_department_closure " +
+            "        EXCEPT SELECT ancestor_id, descendant_id, depth FROM paths) extra)")
+    long countMismatches();
+
+    @Delete("DELETE FROM sys_department_closure")
+    int deleteAll();
+
+    /**
+     * 按 sys_department 全量写入闭包
+     */
+    @Insert("INSERT INTO sys_department_closure (ancestor_id, descendant_id, depth) " +
+            EXPECTED_PATHS +
+            "SELECT ancestor_id, descendant_id, depth FROM paths")
+    int insertAll();
+}
@@ -3,6 +3,9 @@ package org.example.mapper;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 import org.example.entity.SysDepartment;
 
 import java.util.List;
@@ -46,6 +49,58 @@ public interface DepartmentMapper extends BaseMapper<SysDepartment> {
                 .eq(SysDepartment::getParentId, parentId));
     }
 
+    /**
+     * ancestorId 是否为 departmentId 本身或其祖先（递归CTE，单条SQL）
+     * 使用 UNION 去重，数据中存在环时也能终止
+     */
+    @Select("WITH RECURSIVE ancestors AS (" +
+            "  SELECT department_id, parent_id FROM sys_department WHERE department_id = #{departmentId} " +
+            "  UNION " +
+            "  SELECT d.department_id, d.parent_id FROM sys_department d " +
+            "  JOIN ancestors a ON d.department_id = a.parent_id" +
+            ") " +
+            "SELECT EXISTS (SELECT 1 FROM ancestors WHERE department_id = #{ancestorId})")
+    boolean existsSelfOrAncestor(@Param("departmentId") Long departmentId, @Param("ancestorId") Long ancestorId);
+
+    /**
+     * 子孙部门（不含自身）层级整体平移 delta（递归CTE，单条SQL）
+     */
+    @Update("WITH RECURSIVE subtree AS (" +
+            "  SELECT department_id FROM sys_department WHERE parent_id = #{departmentId} " +
+            "  UNION " +
+            "  SELECT d.department_id FROM sys_department d " +
+            "  JOIN subtree s ON d.parent_id = s.department_id" +
+            ") " +
+            "UPDATE sys_department SET level = level + #{delta} " +
+            "WHERE department_id IN (SELECT department_id FROM subtree)")
+    int shiftDescendantsLevel(@Param("departmentId") Long departmentId, @Param("delta") int delta);
+
+    /**
+     * 子孙部门（不含自身），按层级距离排序（递归CTE，未启用闭包表时使用）
+     */
+    @Select("WITH RECURSIVE subtree AS (" +
+            "  SELECT department_id, 1 AS depth FROM sys_department WHERE parent_id = #{departmentId} " +
+            "  UNION ALL " +
+            "  SELECT d.department_id, s.depth + 1 FROM sys_department d " +
+            "  JOIN subtree s ON d.parent_id = s.department_id WHERE s.depth < 1000" +
+            ") " +
+            "SELECT d.* FROM subtree s JOIN sys_department d ON d.department_id = s.department_id " +
+            "ORDER BY s.depth, d.department_id")
+    List<SysDepartment> selectDescendants(@Param("departmentId") Long departmentId);
+
+    /**
+     * 祖先部门（不含自身），从根到直接父部门（递归CTE，未启用闭包表时使用）
+     */
+    @Select("WITH RECURSIVE ancestors AS (" +
+            "  SELECT parent_id, 1 AS depth FROM sys_department WHERE department_id = #{departmentId} " +
+            "  UNION ALL " +
+            "  SELECT d.parent_id, a.depth + 1 FROM sys_department d " +
+            "  JOIN ancestors a ON d.department_id = a.parent_id WHERE a.depth < 1000" +
+            ") " +
+            "SELECT d.* FROM ancestors a JOIN sys_department d ON d.department_id = a.parent_id " +
+            "ORDER BY a.depth DESC")
+    List<SysDepartment> selectAncestors(@Param("departmentId") Long departmentId);
+
     default long countById(Long departmentId) {
         return selectCount(new LambdaQueryWrapper<SysDepartment>()
                 .eq(SysDepartment::getDepartmentId, departmentId));
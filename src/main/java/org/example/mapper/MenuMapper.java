@@ -1,14 +1,17 @@
 package org.example.mapper;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.github.yulichang.base.MPJBaseMapper;
+import com.github.yulichang.wrapper.MPJLambdaWrapper;
 import org.apache.ibatis.annotations.Mapper;
 import org.example.entity.SysMenu;
+import org.example.entity.SysPostMenu;
+import org.example.entity.SysUserPost;
 
 import java.util.List;
 
 @Mapper
-public interface MenuMapper extends BaseMapper<SysMenu> {
+public interface MenuMapper extends MPJBaseMapper<SysMenu> {
 
     default List<SysMenu> selectByParentId(Long parentId) {
         return selectList(new LambdaQueryWrapper<SysMenu>()
@@ -49,6 +52,24 @@ public interface MenuMapper extends BaseMapper<SysMenu> {
                 .eq(SysMenu::getMenuCode, menuCode));
     }
 
+    default List<SysMenu> selectCodeIndex() {
+        return selectList(new LambdaQueryWrapper<SysMenu>()
+                .select(SysMenu::getMenuId, SysMenu::getMenuCode));
+    }
+
+    /**
+     * 查询用户通过岗位拥有的菜单（user -> post -> menu 单条联表SQL）
+     */
+    default List<SysMenu> selectByUserId(String userId) {
+        return selectJoinList(SysMenu.class, new MPJLambdaWrapper<SysMenu>()
+                .distinct()
+                .selectAll(SysMenu.class)
+                .innerJoin(SysPostMenu.class, SysPostMenu::getMenuId, SysMenu::getMenuId)
+                .innerJoin(SysUserPost.class, SysUserPost::getPostId, SysPostMenu::getPostId)
+                .eq(SysUserPost::getUserId, userId)
+                .orderByAsc(SysMenu::getSortOrder));
+    }
+
     default List<SysMenu> selectByMenuIds(List<Long> menuIds) {
         if (menuIds == null || menuIds.isEmpty()) {
             return List.of();
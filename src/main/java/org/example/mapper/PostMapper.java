@@ -1,9 +1,11 @@
 package org.example.mapper;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.github.yulichang.base.MPJBaseMapper;
+import com.github.yulichang.wrapper.MPJLambdaWrapper;
 import org.apache.ibatis.annotations.Mapper;
 import org.example.entity.SysPost;
+import org.example.entity.SysUserPost;
 
 import java.util.List;
 
@@ -12,7 +14,7 @@ import java.util.List;
  * 所有数据库操作都在这里
  */
 @Mapper
-public interface PostMapper extends BaseMapper<SysPost> {
+public interface PostMapper extends MPJBaseMapper<SysPost> {
 
     default List<SysPost> selectByDepartmentId(Long departmentId) {
         return selectList(new LambdaQueryWrapper<SysPost>()
@@ -35,6 +37,18 @@ public interface PostMapper extends BaseMapper<SysPost> {
                 .eq(SysPost::getPostId, postId));
     }
 
+    /**
+     * 查询用户的岗位（user -> post 单条联表SQL）
+     */
+    default List<SysPost> selectByUserId(String userId) {
+        return selectJoinList(SysPost.class, new MPJLambdaWrapper<SysPost>()
+                .distinct()
+                .selectAll(SysPost.class)
+                .innerJoin(SysUserPost.class, SysUserPost::getPostId, SysPost::getPostId)
+                .eq(SysUserPost::getUserId, userId)
+                .orderByAsc(SysPost::getPostId));
+    }
+
     default List<SysPost> selectByPostIds(List<Long> postIds) {
         if (postIds == null || postIds.isEmpty()) {
             return List.of();
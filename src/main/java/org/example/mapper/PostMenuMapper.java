@@ -3,8 +3,11 @@ package org.example.mapper;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
 import org.example.entity.SysPostMenu;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -26,11 +29,27 @@ public interface PostMenuMapper extends BaseMapper<SysPostMenu> {
                 .eq(SysPostMenu::getMenuId, menuId));
     }
 
+    /**
+     * 查询用户在所有岗位上对各菜单的最高权限类型（单条SQL）
+     */
+    @Select("SELECT pm.menu_id, MAX(pm.perm_type) AS perm_type " +
+            "FROM sys_post_menu pm " +
+            "JOIN sys_user_post up ON up.post_id = pm.post_id " +
+            "WHERE up.user_id = #{userId} " +
+            "GROUP BY pm.menu_id")
+    List<SysPostMenu> selectUserPermTypes(@Param("userId") String userId);
+
     default int deleteByPostId(Long postId) {
         return delete(new LambdaQueryWrapper<SysPostMenu>()
                 .eq(SysPostMenu::getPostId, postId));
     }
 
+    default int deleteByPostIdAndMenuIds(Long postId, Collection<Long> menuIds) {
+        return delete(new LambdaQueryWrapper<SysPostMenu>()
+                .eq(SysPostMenu::getPostId, postId)
+                .in(SysPostMenu::getMenuId, menuIds));
+    }
+
     default int deleteByMenuId(Long menuId) {
         return delete(new LambdaQueryWrapper<SysPostMenu>()
                 .eq(SysPostMenu::getMenuId, menuId));
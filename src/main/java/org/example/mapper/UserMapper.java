@@ -32,6 +32,14 @@ public interface UserMapper extends BaseMapper<SysUser> {
                 .eq(SysUser::getStatus, status));
     }
 
+    /**
+     * 查询所有用户名（只取 user_name 列）
+     */
+    default List<String> selectAllUsernames() {
+        return selectObjs(new LambdaQueryWrapper<SysUser>()
+                .select(SysUser::getUserName));
+    }
+
     default long countByUsername(String username) {
         return selectCount(new LambdaQueryWrapper<SysUser>()
                 .eq(SysUser::getUserName, username));
@@ -48,6 +56,17 @@ public interface UserMapper extends BaseMapper<SysUser> {
                 .eq(SysUser::getUserId, userId));
     }
 
+    /**
+     * 仅当密码仍为 expectedPassword 时更新，避免覆盖并发修改
+     */
+    default int updatePasswordIfMatch(String userId, String expectedPassword, String newPassword) {
+        SysUser user = new SysUser();
+        user.setPassword(newPassword);
+        return update(user, new LambdaUpdateWrapper<SysUser>()
+                .eq(SysUser::getUserId, userId)
+                .eq(SysUser::getPassword, expectedPassword));
+    }
+
     default int softDeleteById(String userId) {
         SysUser user = new SysUser();
         user.setIsDelete(true);
@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
 import org.example.entity.SysUserPost;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -25,6 +26,12 @@ public interface UserPostMapper extends BaseMapper<SysUserPost> {
                 .eq(SysUserPost::getUserId, userId));
     }
 
+    default int deleteByUserIdAndPostIds(String userId, Collection<Long> postIds) {
+        return delete(new LambdaQueryWrapper<SysUserPost>()
+                .eq(SysUserPost::getUserId, userId)
+                .in(SysUserPost::getPostId, postIds));
+    }
+
     default int deleteByPostId(Long postId) {
         return delete(new LambdaQueryWrapper<SysUserPost>()
                 .eq(SysUserPost::getPostId, postId));
@@ -2,7 +2,9 @@ package org.example.repository;
 
 import org.example.entity.SysDepartment;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 部门 Repository 接口
@@ -14,6 +16,18 @@ public interface DepartmentRepository {
      */
     SysDepartment findById(Long departmentId);
 
+    /**
+     * 根据ID批量查询部门
+     */
+    List<SysDepartment> findByIds(Collection<Long> departmentIds);
+
+    /**
+     * 根据ID批量查询部门名称
+     *
+     * @return departmentId -> departmentName
+     */
+    Map<Long, String> findNamesByIds(Collection<Long> departmentIds);
+
     /**
      * 查询所有部门
      */
@@ -39,6 +53,54 @@ public interface DepartmentRepository {
      */
     int update(SysDepartment department);
 
+    /**
+     * targetId 是否为 departmentId 本身或其子孙
+     */
+    boolean isSelfOrDescendant(Long departmentId, Long targetId);
+
+    /**
+     * departmentId 是否为 ancestorId 的子孙（不含自身）
+     */
+    boolean isDescendant(Long ancestorId, Long departmentId);
+
+    /**
+     * 查询子孙部门（不含自身），按层级距离排序
+     */
+    List<SysDepartment> findDescendants(Long departmentId);
+
+    /**
+     * 查询祖先部门（不含自身），从根到直接父部门
+     */
+    List<SysDepartment> findAncestors(Long departmentId);
+
+    /**
+     * 部门移动后维护层级索引（需在更新 parent_id 的同一事务中调用）
+     */
+    void moveHierarchy(Long departmentId, Long newParentId);
+
+    /**
+     * 是否启用了层级索引（闭包表）
+     */
+    boolean isHierarchyIndexEnabled();
+
+    /**
+     * 层级索引与 parent_id 实际层级的差异行数，0 表示一致
+     */
+    long countHierarchyMismatches();
+
+    /**
+     * 按 parent_id 全量重建层级索引
+     *
+     * @return 写入的闭包行数
+     */
+    int rebuildHierarchyIndex();
+
+    /**
+     * 子孙部门（不含自身）层级整体加 delta
+     *
+     * @return 更新的部门数
+     */
+    int shiftDescendantsLevel(Long departmentId, int delta);
 
     /**
      * 删除部门
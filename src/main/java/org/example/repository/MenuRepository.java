@@ -29,6 +29,11 @@ public interface MenuRepository {
      */
     List<SysMenu> findAll();
 
+    /**
+     * 查询所有菜单的ID与代码（仅加载这两列）
+     */
+    List<SysMenu> findAllCodes();
+
     /**
      * 查询根菜单
      */
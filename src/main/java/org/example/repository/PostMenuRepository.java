@@ -1,8 +1,10 @@
 package org.example.repository;
 
+import org.example.dto.AssignResult;
 import org.example.entity.SysPostMenu;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 岗位-菜单关联 Repository 接口
@@ -19,6 +21,11 @@ public interface PostMenuRepository {
      */
     void saveAll(List<SysPostMenu> postMenus);
 
+    /**
+     * 查询所有权限关联
+     */
+    List<SysPostMenu> findAll();
+
     /**
      * 根据岗位ID查询
      */
@@ -39,6 +46,13 @@ public interface PostMenuRepository {
      */
     Integer findUserPermType(String userId, Long menuId);
 
+    /**
+     * 批量查询用户对所有菜单的最高权限类型
+     *
+     * @return menuId -> permType
+     */
+    Map<Long, Integer> findUserPermTypes(String userId);
+
     /**
      * 查询用户对某菜单代码的最高权限类型
      */
@@ -49,6 +63,15 @@ public interface PostMenuRepository {
      */
     int deleteByPostId(Long postId);
 
+    /**
+     * 差量覆盖岗位的权限
+     * 对比现有关联，仅新增、更新权限类型、删除有变化的菜单，各以一条批量语句执行
+     *
+     * @param permTypes menuId -> permType，为岗位最终应有的权限
+     * @return 实际发生变化的菜单ID
+     */
+    AssignResult replacePostPermissions(Long postId, Map<Long, Integer> permTypes);
+
     /**
      * 删除菜单的所有权限关联
      */
@@ -1,5 +1,6 @@
 package org.example.repository;
 import com.baomidou.mybatisplus.extension.service.IService;
+import org.example.dto.AssignResult;
 import org.example.entity.SysUserPost;
 import java.util.List;
 /**
@@ -28,6 +29,9 @@ public interface UserPostRepository extends IService<SysUserPost> {
     boolean userExists(String userId);
     /**
      * 批量为用户分配岗位
+     * 差量执行：只插入新增的岗位、删除移除的岗位
+     *
+     * @return 实际发生变化的岗位ID
      */
-    void assignPostsToUser(String userId, List<Long> postIds);
+    AssignResult assignPostsToUser(String userId, List<Long> postIds);
 }
@@ -3,6 +3,9 @@ package org.example.repository;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import org.example.cache.CacheRegion;
+import org.example.cache.TwoTierCache;
+import org.example.cache.TwoTierCacheFactory;
 import org.example.entity.SysUser;
 import org.example.mapper.UserMapper;
 import org.slf4j.Logger;
@@ -13,7 +16,7 @@ import java.util.List;
 
 /**
  * 用户仓储层
- * 直接调用 Mapper
+ * 直接调用 Mapper，findById 经两级缓存读取（不含密码哈希），写操作后失效
  */
 @Repository
 public class UserRepository {
@@ -21,9 +24,11 @@ public class UserRepository {
     private static final Logger log = LoggerFactory.getLogger(UserRepository.class);
 
     private final UserMapper userMapper;
+    private final TwoTierCache<SysUser> cache;
 
-    public UserRepository(UserMapper userMapper) {
+    public UserRepository(UserMapper userMapper, TwoTierCacheFactory cacheFactory) {
         this.userMapper = userMapper;
+        this.cache = cacheFactory.create(CacheRegion.USER, SysUser.class);
     }
 
     public SysUser findByUsername(String username) {
@@ -36,16 +41,33 @@ public class UserRepository {
         }
     }
 
+    /**
+     * 按ID查询用户（经两级缓存，不含密码哈希）
+     * 密码哈希不进入本地缓存和 Redis，需要完整记录时使用 {@link #findByIdWithPassword}
+     */
     public SysUser findById(String userId) {
         log.debug("Repository: findById, userId={}", userId);
         try {
-            return userMapper.selectByUserId(userId);
+            return cache.get(userId, () -> withoutPassword(userMapper.selectByUserId(userId)));
         } catch (Exception e) {
             log.error("Repository: findById failed, error={}", e.getMessage(), e);
             throw new RuntimeException("查找用户失败", e);
         }
     }
 
+    /**
+     * 按ID查询用户（含密码哈希，直接查数据库，用于归档等需要完整记录的场景）
+     */
+    public SysUser findByIdWithPassword(String userId) {
+        log.debug("Repository: findByIdWithPassword, userId={}", userId);
+        try {
+            return userMapper.selectByUserId(userId);
+        } catch (Exception e) {
+            log.error("Repository: findByIdWithPassword failed, error={}", e.getMessage(), e);
+            throw new RuntimeException("查找用户失败", e);
+        }
+    }
+
     public boolean existsByUsername(String username) {
         log.debug("Repository: existsByUsername, username={}", username);
         try {
@@ -56,6 +78,16 @@ public class UserRepository {
         }
     }
 
+    public List<String> findAllUsernames() {
+        log.debug("Repository: findAllUsernames");
+        try {
+            return userMapper.selectAllUsernames();
+        } catch (Exception e) {
+            log.error("Repository: findAllUsernames failed, error={}", e.getMessage(), e);
+            throw new RuntimeException("查找用户名失败", e);
+        }
+    }
+
     public boolean existsById(String userId) {
         log.debug("Repository: existsById, userId={}", userId);
         try {
@@ -70,6 +102,7 @@ public class UserRepository {
         log.info("Repository: save, userName={}", user.getUserName());
         try {
             int result = userMapper.insert(user);
+            cache.evict(user.getUserId());
             return result > 0;
         } catch (Exception e) {
             log.error("Repository: save failed, error={}", e.getMessage(), e);
@@ -81,6 +114,7 @@ public class UserRepository {
         log.info("Repository: update, userId={}", user.getUserId());
         try {
             int result = userMapper.updateById(user);
+            cache.evict(user.getUserId());
             return result > 0;
         } catch (Exception e) {
             log.error("Repository: update failed, error={}", e.getMessage(), e);
@@ -88,10 +122,28 @@ public class UserRepository {
         }
     }
 
+    /**
+     * 替换密码哈希（仅当当前值为 expectedPassword 时）
+     */
+    public boolean replacePassword(String userId, String expectedPassword, String newPassword) {
+        log.info("Repository: replacePassword, userId={}", userId);
+        try {
+            boolean replaced = userMapper.updatePasswordIfMatch(userId, expectedPassword, newPassword) > 0;
+            if (replaced) {
+                cache.evict(userId);
+            }
+            return replaced;
+        } catch (Exception e) {
+            log.error("Repository: replacePassword failed, error={}", e.getMessage(), e);
+            throw new RuntimeException("更新密码失败", e);
+        }
+    }
+
     public boolean delete(String userId) {
         log.info("Repository: delete, userId={}", userId);
         try {
             int result = userMapper.deleteByUserId(userId);
+            cache.evict(userId);
             return result > 0;
         } catch (Exception e) {
             log.error("Repository: delete failed, error={}", e.getMessage(), e);
@@ -157,4 +209,11 @@ public class UserRepository {
             throw new RuntimeException("统计失败", e);
         }
     }
+
+    private static SysUser withoutPassword(SysUser user) {
+        if (user != null) {
+            user.setPassword(null);
+        }
+        return user;
+    }
 }
@@ -1,24 +1,30 @@
 package org.example.repository.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import org.example.cache.CacheRegion;
+import org.example.cache.TwoTierCache;
+import org.example.cache.TwoTierCacheFactory;
 import org.example.entity.SysCompany;
 import org.example.mapper.CompanyMapper;
 import org.example.repository.CompanyRepository;
 import org.springframework.stereotype.Repository;
 
+import java.io.Serializable;
 import java.util.List;
 
 /**
  * 公司 Repository 实现类
- * 直接调用 Mapper 层
+ * 直接调用 Mapper 层，findById 经两级缓存读取，按ID更新、删除后失效
  */
 @Repository
 public class CompanyRepositoryImpl extends ServiceImpl<CompanyMapper, SysCompany> implements CompanyRepository {
 
     private final CompanyMapper companyMapper;
+    private final TwoTierCache<SysCompany> cache;
 
-    public CompanyRepositoryImpl(CompanyMapper companyMapper) {
+    public CompanyRepositoryImpl(CompanyMapper companyMapper, TwoTierCacheFactory cacheFactory) {
         this.companyMapper = companyMapper;
+        this.cache = cacheFactory.create(CacheRegion.COMPANY, SysCompany.class);
     }
 
     @Override
@@ -38,11 +44,27 @@ public class CompanyRepositoryImpl extends ServiceImpl<CompanyMapper, SysCompany
 
     @Override
     public SysCompany findById(Long companyId) {
-        return companyMapper.selectById(companyId);
+        return cache.get(companyId, () -> companyMapper.selectById(companyId));
+    }
+
+    @Override
+    public boolean updateById(SysCompany company) {
+        boolean updated = companyMapper.updateById(company) > 0;
+        cache.evict(company.getCompanyId());
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable companyId) {
+        boolean removed = companyMapper.deleteById(companyId) > 0;
+        cache.evict(companyId);
+        return removed;
     }
 
     @Override
     public boolean softDeleteById(Long companyId) {
-        return companyMapper.softDeleteById(companyId) > 0;
+        boolean deleted = companyMapper.softDeleteById(companyId) > 0;
+        cache.evict(companyId);
+        return deleted;
     }
 }
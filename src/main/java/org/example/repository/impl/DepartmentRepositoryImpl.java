@@ -1,28 +1,67 @@
 package org.example.repository.impl;
 
+import org.example.cache.CacheRegion;
+import org.example.cache.TwoTierCache;
+import org.example.cache.TwoTierCacheFactory;
 import org.example.entity.SysDepartment;
+import org.example.mapper.DepartmentClosureMapper;
 import org.example.mapper.DepartmentMapper;
 import org.example.repository.DepartmentRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * 部门 Repository 实现类
  * 直接调用 Mapper 层
+ * <p>
+ * 启用闭包表（wms.department.closure.enabled，需先执行 department_closure.sql）后，
+ * 祖先/子孙查询为单条索引查询，新增、移动、删除部门时同步维护闭包表；
+ * 未启用时使用递归CTE。
+ * <p>
+ * findById 经两级缓存读取，更新、删除、层级平移后失效。
  */
 @Repository
 public class DepartmentRepositoryImpl implements DepartmentRepository {
 
     private final DepartmentMapper departmentMapper;
+    private final DepartmentClosureMapper departmentClosureMapper;
+    private final boolean closureEnabled;
+    private final TwoTierCache<SysDepartment> cache;
 
-    public DepartmentRepositoryImpl(DepartmentMapper departmentMapper) {
+    public DepartmentRepositoryImpl(DepartmentMapper departmentMapper,
+                                    DepartmentClosureMapper departmentClosureMapper,
+                                    TwoTierCacheFactory cacheFactory,
+                                    @Value("${wms.department.closure.enabled:false}") boolean closureEnabled) {
         this.departmentMapper = departmentMapper;
+        this.departmentClosureMapper = departmentClosureMapper;
+        this.closureEnabled = closureEnabled;
+        this.cache = cacheFactory.create(CacheRegion.DEPARTMENT, SysDepartment.class);
     }
 
     @Override
     public SysDepartment findById(Long departmentId) {
-        return departmentMapper.selectById(departmentId);
+        return cache.get(departmentId, () -> departmentMapper.selectById(departmentId));
+    }
+
+    @Override
+    public List<SysDepartment> findByIds(Collection<Long> departmentIds) {
+        if (departmentIds == null || departmentIds.isEmpty()) {
+            return List.of();
+        }
+        return departmentMapper.selectBatchIds(departmentIds);
+    }
+
+    @Override
+    public Map<Long, String> findNamesByIds(Collection<Long> departmentIds) {
+        return findByIds(departmentIds).stream()
+                .filter(d -> d.getDepartmentName() != null)
+                .collect(Collectors.toMap(SysDepartment::getDepartmentId, SysDepartment::getDepartmentName));
     }
 
     @Override
@@ -42,17 +81,28 @@ public class DepartmentRepositoryImpl implements DepartmentRepository {
 
     @Override
     public int save(SysDepartment department) {
-        return departmentMapper.insert(department);
+        int rows = departmentMapper.insert(department);
+        if (closureEnabled && rows > 0) {
+            departmentClosureMapper.insertNode(department.getDepartmentId(), department.getParentId());
+        }
+        return rows;
     }
 
     @Override
     public int update(SysDepartment department) {
-        return departmentMapper.updateById(department);
+        int rows = departmentMapper.updateById(department);
+        cache.evict(department.getDepartmentId());
+        return rows;
     }
 
     @Override
     public int deleteById(Long departmentId) {
-        return departmentMapper.deleteById(departmentId);
+        if (closureEnabled) {
+            departmentClosureMapper.deleteNode(departmentId);
+        }
+        int rows = departmentMapper.deleteById(departmentId);
+        cache.evict(departmentId);
+        return rows;
     }
 
     @Override
@@ -60,6 +110,72 @@ public class DepartmentRepositoryImpl implements DepartmentRepository {
         return departmentMapper.countById(departmentId) > 0;
     }
 
+    @Override
+    public boolean isSelfOrDescendant(Long departmentId, Long targetId) {
+        if (closureEnabled) {
+            return departmentClosureMapper.existsPath(departmentId, targetId);
+        }
+        return departmentMapper.existsSelfOrAncestor(targetId, departmentId);
+    }
+
+    @Override
+    public boolean isDescendant(Long ancestorId, Long departmentId) {
+        return !Objects.equals(ancestorId, departmentId) && isSelfOrDescendant(ancestorId, departmentId);
+    }
+
+    @Override
+    public List<SysDepartment> findDescendants(Long departmentId) {
+        if (closureEnabled) {
+            return departmentClosureMapper.selectDescendants(departmentId);
+        }
+        return departmentMapper.selectDescendants(departmentId);
+    }
+
+    @Override
+    public List<SysDepartment> findAncestors(Long departmentId) {
+        if (closureEnabled) {
+            return departmentClosureMapper.selectAncestors(departmentId);
+        }
+        return departmentMapper.selectAncestors(departmentId);
+    }
+
+    @Override
+    public void moveHierarchy(Long departmentId, Long newParentId) {
+        if (!closureEnabled) {
+            return;
+        }
+        departmentClosureMapper.detachSubtree(departmentId);
+        if (newParentId != null) {
+            departmentClosureMapper.attachSubtree(departmentId, newParentId);
+        }
+    }
+
+    @Override
+    public boolean isHierarchyIndexEnabled() {
+        return closureEnabled;
+    }
+
+    @Override
+    public long countHierarchyMismatches() {
+        return departmentClosureMapper.countMismatches();
+    }
+
+    @Override
+    public int rebuildHierarchyIndex() {
+        departmentClosureMapper.deleteAll();
+        return departmentClosureMapper.insertAll();
+    }
+
+    @Override
+    public int shiftDescendantsLevel(Long departmentId, int delta) {
+        int rows = departmentMapper.shiftDescendantsLevel(departmentId, delta);
+        // 批量更新了整棵子树的 level，子孙ID未知，整体失效
+        if (rows > 0) {
+            cache.evictAll();
+        }
+        return rows;
+    }
+
     @Override
     public long countByCompanyId(Long companyId) {
         return departmentMapper.countByCompanyId(companyId);
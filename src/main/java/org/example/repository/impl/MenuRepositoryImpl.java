@@ -1,11 +1,12 @@
 package org.example.repository.impl;
 
+import org.example.cache.CacheRegion;
+import org.example.cache.TwoTierCache;
+import org.example.cache.TwoTierCacheFactory;
 import org.example.entity.SysMenu;
 import org.example.entity.SysPostMenu;
-import org.example.entity.SysUserPost;
 import org.example.mapper.MenuMapper;
 import org.example.mapper.PostMenuMapper;
-import org.example.mapper.UserPostMapper;
 import org.example.repository.MenuRepository;
 import org.springframework.stereotype.Repository;
 
@@ -14,19 +15,20 @@ import java.util.stream.Collectors;
 
 /**
  * 菜单 Repository 实现类
- * 组装多表查询逻辑
+ * 组装多表查询逻辑，findByMenuCode 经两级缓存读取，更新、删除后失效
  */
 @Repository
 public class MenuRepositoryImpl implements MenuRepository {
 
     private final MenuMapper menuMapper;
     private final PostMenuMapper postMenuMapper;
-    private final UserPostMapper userPostMapper;
+    private final TwoTierCache<SysMenu> codeCache;
 
-    public MenuRepositoryImpl(MenuMapper menuMapper, PostMenuMapper postMenuMapper, UserPostMapper userPostMapper) {
+    public MenuRepositoryImpl(MenuMapper menuMapper, PostMenuMapper postMenuMapper,
+                              TwoTierCacheFactory cacheFactory) {
         this.menuMapper = menuMapper;
         this.postMenuMapper = postMenuMapper;
-        this.userPostMapper = userPostMapper;
+        this.codeCache = cacheFactory.create(CacheRegion.MENU, SysMenu.class);
     }
 
     @Override
@@ -42,7 +44,7 @@ public class MenuRepositoryImpl implements MenuRepository {
 
     @Override
     public SysMenu findByMenuCode(String menuCode) {
-        return menuMapper.selectByMenuCode(menuCode);
+        return codeCache.get(menuCode, () -> menuMapper.selectByMenuCode(menuCode));
     }
 
     @Override
@@ -50,6 +52,11 @@ public class MenuRepositoryImpl implements MenuRepository {
         return menuMapper.selectList(null);
     }
 
+    @Override
+    public List<SysMenu> findAllCodes() {
+        return menuMapper.selectCodeIndex();
+    }
+
     @Override
     public List<SysMenu> findRootMenus() {
         return menuMapper.selectRootMenus();
@@ -62,22 +69,8 @@ public class MenuRepositoryImpl implements MenuRepository {
 
     @Override
     public List<SysMenu> findByUserId(String userId) {
-        // 1. 查 user_post 获取用户的岗位IDs
-        List<SysUserPost> userPosts = userPostMapper.selectByUserId(userId);
-        List<Long> postIds = userPosts.stream()
-                .map(SysUserPost::getPostId)
-                .collect(Collectors.toList());
-        if (postIds.isEmpty()) {
-            return List.of();
-        }
-        // 2. 查 post_menu 获取这些岗位的菜单IDs
-        List<Long> menuIds = postIds.stream()
-                .flatMap(postId -> postMenuMapper.selectByPostId(postId).stream())
-                .map(SysPostMenu::getMenuId)
-                .distinct()
-                .collect(Collectors.toList());
-        // 3. 查菜单
-        return menuMapper.selectByMenuIds(menuIds);
+        // 一条联表SQL：sys_user_post -> sys_post_menu -> sys_menu（DISTINCT）
+        return menuMapper.selectByUserId(userId);
     }
 
     @Override
@@ -103,12 +96,21 @@ public class MenuRepositoryImpl implements MenuRepository {
 
     @Override
     public boolean update(SysMenu menu) {
-        return menuMapper.updateById(menu) > 0;
+        // 菜单代码可能被修改，新旧代码都失效
+        SysMenu existing = menuMapper.selectById(menu.getMenuId());
+        boolean updated = menuMapper.updateById(menu) > 0;
+        codeCache.evict(existing != null ? existing.getMenuCode() : null, menu.getMenuCode());
+        return updated;
     }
 
     @Override
     public boolean deleteById(Long menuId) {
-        return menuMapper.deleteById(menuId) > 0;
+        SysMenu existing = menuMapper.selectById(menuId);
+        boolean deleted = menuMapper.deleteById(menuId) > 0;
+        if (existing != null) {
+            codeCache.evict(existing.getMenuCode());
+        }
+        return deleted;
     }
 
     @Override
@@ -1,5 +1,7 @@
 package org.example.repository.impl;
 
+import com.baomidou.mybatisplus.extension.toolkit.Db;
+import org.example.dto.AssignResult;
 import org.example.entity.SysMenu;
 import org.example.entity.SysPostMenu;
 import org.example.entity.SysUserPost;
@@ -7,10 +9,17 @@ import org.example.mapper.MenuMapper;
 import org.example.mapper.PostMenuMapper;
 import org.example.mapper.UserPostMapper;
 import org.example.repository.PostMenuRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * 岗位-菜单关联 Repository 实现类
@@ -23,10 +32,17 @@ public class PostMenuRepositoryImpl implements PostMenuRepository {
     private final UserPostMapper userPostMapper;
     private final MenuMapper menuMapper;
 
-    public PostMenuRepositoryImpl(PostMenuMapper postMenuMapper, UserPostMapper userPostMapper, MenuMapper menuMapper) {
+    /**
+     * JDBC 批量写入每批条数
+     */
+    private final int batchSize;
+
+    public PostMenuRepositoryImpl(PostMenuMapper postMenuMapper, UserPostMapper userPostMapper, MenuMapper menuMapper,
+                                  @Value("${wms.jdbc.batch-size:500}") int batchSize) {
         this.postMenuMapper = postMenuMapper;
         this.userPostMapper = userPostMapper;
         this.menuMapper = menuMapper;
+        this.batchSize = batchSize;
     }
 
     @Override
@@ -37,9 +53,16 @@ public class PostMenuRepositoryImpl implements PostMenuRepository {
 
     @Override
     public void saveAll(List<SysPostMenu> postMenus) {
-        for (SysPostMenu postMenu : postMenus) {
-            postMenuMapper.insert(postMenu);
+        if (postMenus == null || postMenus.isEmpty()) {
+            return;
         }
+        // ExecutorType.BATCH 批量提交，配合 reWriteBatchedInserts 合并为多行 INSERT
+        Db.saveBatch(postMenus, batchSize);
+    }
+
+    @Override
+    public List<SysPostMenu> findAll() {
+        return postMenuMapper.selectList(null);
     }
 
     @Override
@@ -73,6 +96,13 @@ public class PostMenuRepositoryImpl implements PostMenuRepository {
                 .orElse(null);
     }
 
+    @Override
+    public Map<Long, Integer> findUserPermTypes(String userId) {
+        // 一次联表查询：sys_user_post JOIN sys_post_menu，按菜单取 MAX(perm_type)
+        return postMenuMapper.selectUserPermTypes(userId).stream()
+                .collect(Collectors.toMap(SysPostMenu::getMenuId, SysPostMenu::getPermType));
+    }
+
     @Override
     public Integer findUserPermTypeByCode(String userId, String menuCode) {
         // 1. 根据 menuCode 查菜单
@@ -89,6 +119,45 @@ public class PostMenuRepositoryImpl implements PostMenuRepository {
         return postMenuMapper.deleteByPostId(postId);
     }
 
+    @Override
+    @Transactional
+    public AssignResult replacePostPermissions(Long postId, Map<Long, Integer> permTypes) {
+        Map<Long, SysPostMenu> current = new HashMap<>();
+        for (SysPostMenu pm : postMenuMapper.selectByPostId(postId)) {
+            current.put(pm.getMenuId(), pm);
+        }
+
+        List<SysPostMenu> inserts = new ArrayList<>();
+        List<SysPostMenu> updates = new ArrayList<>();
+        List<Long> added = new ArrayList<>();
+        List<Long> updated = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : permTypes.entrySet()) {
+            SysPostMenu existing = current.remove(entry.getKey());
+            if (existing == null) {
+                inserts.add(new SysPostMenu(postId, entry.getKey(), entry.getValue()));
+                added.add(entry.getKey());
+            } else if (!Objects.equals(existing.getPermType(), entry.getValue())) {
+                // 只携带主键和权限类型，其余字段不参与 UPDATE
+                SysPostMenu update = new SysPostMenu();
+                update.setId(existing.getId());
+                update.setPermType(entry.getValue());
+                updates.add(update);
+                updated.add(entry.getKey());
+            }
+        }
+        // 剩余的即为需要移除的菜单
+        List<Long> removed = new ArrayList<>(current.keySet());
+
+        if (!removed.isEmpty()) {
+            postMenuMapper.deleteByPostIdAndMenuIds(postId, removed);
+        }
+        if (!updates.isEmpty()) {
+            Db.updateBatchById(updates, batchSize);
+        }
+        saveAll(inserts);
+        return new AssignResult(added, updated, removed);
+    }
+
     @Override
     public int deleteByMenuId(Long menuId) {
         return postMenuMapper.deleteByMenuId(menuId);
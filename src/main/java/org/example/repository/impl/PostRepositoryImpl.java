@@ -1,17 +1,13 @@
 package org.example.repository.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import org.example.entity.SysDepartment;
 import org.example.entity.SysPost;
-import org.example.entity.SysUserPost;
 import org.example.mapper.DepartmentMapper;
 import org.example.mapper.PostMapper;
-import org.example.mapper.UserPostMapper;
 import org.example.repository.PostRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * 岗位 Repository 实现类
@@ -22,12 +18,10 @@ public class PostRepositoryImpl extends ServiceImpl<PostMapper, SysPost> impleme
 
     private final PostMapper postMapper;
     private final DepartmentMapper departmentMapper;
-    private final UserPostMapper userPostMapper;
 
-    public PostRepositoryImpl(PostMapper postMapper, DepartmentMapper departmentMapper, UserPostMapper userPostMapper) {
+    public PostRepositoryImpl(PostMapper postMapper, DepartmentMapper departmentMapper) {
         this.postMapper = postMapper;
         this.departmentMapper = departmentMapper;
-        this.userPostMapper = userPostMapper;
     }
 
     @Override
@@ -37,33 +31,12 @@ public class PostRepositoryImpl extends ServiceImpl<PostMapper, SysPost> impleme
 
     @Override
     public List<SysPost> findByUserId(String userId) {
-        // 1. 查 user_post 表获取 postIds
-        List<SysUserPost> userPosts = userPostMapper.selectByUserId(userId);
-        List<Long> postIds = userPosts.stream()
-                .map(SysUserPost::getPostId)
-                .collect(Collectors.toList());
-        // 2. 根据 postIds 查岗位
-        return postMapper.selectByPostIds(postIds);
+        // 一条联表SQL：sys_user_post -> sys_post（DISTINCT）
+        return postMapper.selectByUserId(userId);
     }
 
     @Override
     public boolean departmentExists(Long departmentId) {
         return departmentMapper.countById(departmentId) > 0;
     }
-
-    @Override
-    public List<SysPost> findByCompanyId(Long companyId) {
-        // 1. 查该公司的所有部门
-        List<SysDepartment> departments = departmentMapper.selectByCompanyId(companyId);
-        List<Long> departmentIds = departments.stream()
-                .map(SysDepartment::getDepartmentId)
-                .toList();
-        // 2. 查这些部门下的所有岗位
-        if (departmentIds.isEmpty()) {
-            return List.of();
-        }
-        return departmentIds.stream()
-                .flatMap(deptId -> postMapper.selectByDepartmentId(deptId).stream())
-                .collect(Collectors.toList());
-    }
 }
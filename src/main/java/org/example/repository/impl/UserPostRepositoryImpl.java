@@ -1,14 +1,19 @@
 package org.example.repository.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import org.example.dto.AssignResult;
 import org.example.entity.SysUserPost;
 import org.example.mapper.UserPostMapper;
 import org.example.repository.UserPostRepository;
 import org.example.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 用户岗位关联 Repository 实现类
@@ -20,9 +25,16 @@ public class UserPostRepositoryImpl extends ServiceImpl<UserPostMapper, SysUserP
     private final UserPostMapper userPostMapper;
     private final UserRepository userRepository;
 
-    public UserPostRepositoryImpl(UserPostMapper userPostMapper, UserRepository userRepository) {
+    /**
+     * JDBC 批量写入每批条数
+     */
+    private final int batchSize;
+
+    public UserPostRepositoryImpl(UserPostMapper userPostMapper, UserRepository userRepository,
+                                  @Value("${wms.jdbc.batch-size:500}") int batchSize) {
         this.userPostMapper = userPostMapper;
         this.userRepository = userRepository;
+        this.batchSize = batchSize;
     }
 
     @Override
@@ -52,15 +64,27 @@ public class UserPostRepositoryImpl extends ServiceImpl<UserPostMapper, SysUserP
 
     @Override
     @Transactional
-    public void assignPostsToUser(String userId, List<Long> postIds) {
-        // 先删除用户原有的岗位关联
-        userPostMapper.deleteByUserId(userId);
-        // 批量插入新的岗位关联
-        for (Long postId : postIds) {
-            SysUserPost userPost = new SysUserPost();
-            userPost.setUserId(userId);
-            userPost.setPostId(postId);
-            userPostMapper.insert(userPost);
+    public AssignResult assignPostsToUser(String userId, List<Long> postIds) {
+        Set<Long> current = new LinkedHashSet<>();
+        for (SysUserPost userPost : userPostMapper.selectByUserId(userId)) {
+            current.add(userPost.getPostId());
+        }
+
+        List<Long> added = new ArrayList<>();
+        for (Long postId : new LinkedHashSet<>(postIds)) {
+            if (!current.remove(postId)) {
+                added.add(postId);
+            }
+        }
+        // 剩余的即为需要移除的岗位
+        List<Long> removed = new ArrayList<>(current);
+
+        if (!removed.isEmpty()) {
+            userPostMapper.deleteByUserIdAndPostIds(userId, removed);
+        }
+        if (!added.isEmpty()) {
+            saveBatch(added.stream().map(postId -> new SysUserPost(userId, postId)).toList(), batchSize);
         }
+        return new AssignResult(added, List.of(), removed);
     }
 }
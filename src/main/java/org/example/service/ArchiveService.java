@@ -4,6 +4,7 @@ import org.example.entity.SysUser;
 import org.example.entity.SysUserArchive;
 import org.example.repository.UserArchiveRepository;
 import org.example.repository.UserRepository;
+import org.example.util.TransactionUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -22,10 +23,15 @@ public class ArchiveService {
 
     private final UserRepository userRepository;
     private final UserArchiveRepository userArchiveRepository;
+    private final TokenRevocationService tokenRevocationService;
+    private final UsernameIndex usernameIndex;
 
-    public ArchiveService(UserRepository userRepository, UserArchiveRepository userArchiveRepository) {
+    public ArchiveService(UserRepository userRepository, UserArchiveRepository userArchiveRepository,
+                          TokenRevocationService tokenRevocationService, UsernameIndex usernameIndex) {
         this.userRepository = userRepository;
         this.userArchiveRepository = userArchiveRepository;
+        this.tokenRevocationService = tokenRevocationService;
+        this.usernameIndex = usernameIndex;
     }
 
     /**
@@ -35,7 +41,7 @@ public class ArchiveService {
     public boolean archiveUser(String userId) {
         log.info("归档用户: userId={}", userId);
 
-        SysUser user = userRepository.findById(userId);
+        SysUser user = userRepository.findByIdWithPassword(userId);
         if (user == null) {
             log.warn("归档失败: 用户不存在, userId={}", userId);
             return false;
@@ -45,6 +51,9 @@ public class ArchiveService {
         userArchiveRepository.save(archive);
 
         userRepository.delete(userId);
+        // 已归档用户的Token全部失效
+        TransactionUtil.afterCommit(() -> tokenRevocationService.revokeAllSessions(userId));
+        usernameIndex.remove(user.getUserName());
 
         log.info("用户归档成功: userId={}", userId);
         return true;
@@ -85,6 +94,7 @@ public class ArchiveService {
         userRepository.save(user);
 
         userArchiveRepository.deleteByUserId(userId);
+        usernameIndex.add(user.getUserName());
 
         log.info("用户恢复成功: userId={}", userId);
         return true;
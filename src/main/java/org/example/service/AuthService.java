@@ -4,14 +4,17 @@ import org.example.repository.UserRepository;
 import org.example.dto.LoginRequest;
 import org.example.dto.LoginResponse;
 import org.example.entity.SysUser;
-import org.example.util.JwtUtil;
-import org.example.util.PasswordUtil;
+import org.example.util.TokenClaims;
+import org.example.util.TokenCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Date;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 认证服务类
@@ -24,68 +27,113 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final TokenBlacklistService tokenBlacklistService;
+    private final TokenCodec tokenCodec;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final PasswordHasher passwordHasher;
+    private final UsernameIndex usernameIndex;
 
     // 构造器注入
-    public AuthService(UserRepository userRepository, TokenBlacklistService tokenBlacklistService) {
+    public AuthService(UserRepository userRepository, TokenBlacklistService tokenBlacklistService,
+                       TokenCodec tokenCodec, VerifiedTokenCache verifiedTokenCache,
+                       TokenRevocationService tokenRevocationService, PasswordHasher passwordHasher,
+                       UsernameIndex usernameIndex) {
         this.userRepository = userRepository;
         this.tokenBlacklistService = tokenBlacklistService;
+        this.tokenCodec = tokenCodec;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenRevocationService = tokenRevocationService;
+        this.passwordHasher = passwordHasher;
+        this.usernameIndex = usernameIndex;
     }
 
     /**
      * 用户登录
+     * 密码校验在哈希线程池中执行，不占用请求线程
+     *
+     * @throws RejectedExecutionException 密码哈希线程池饱和
      */
-    public LoginResponse login(LoginRequest request) {
+    public CompletableFuture<LoginResponse> login(LoginRequest request) {
         log.info("========== 用户登录请求开始 ==========");
         log.info("用户登录请求: username={}", request.getUsername());
-        log.debug("DEBUG日志测试: 登录方法被调用");
 
+        SysUser user;
         try {
             log.debug("DEBUG: 开始查询用户, username={}", request.getUsername());
-            // 通过 Repository 查询用户
-            SysUser user = userRepository.findByUsername(request.getUsername());
+            // 不存在的用户名由本地索引直接拒绝，不查数据库
+            user = usernameIndex.findByUsername(request.getUsername());
+        } catch (Exception e) {
+            log.error("登录过程中发生错误: username={}, error={}", request.getUsername(), e.getMessage(), e);
+            return CompletableFuture.completedFuture(LoginResponse.fail("系统错误，请稍后重试"));
+        }
 
-            if (user == null) {
-                log.warn("登录失败: 用户不存在, username={}", request.getUsername());
-                log.debug("DEBUG: 返回失败响应 - 用户不存在");
-                return LoginResponse.fail("用户名或密码错误");
-            }
+        if (user == null) {
+            log.warn("登录失败: 用户不存在, username={}", request.getUsername());
+            return CompletableFuture.completedFuture(LoginResponse.fail("用户名或密码错误"));
+        }
 
-            log.debug("DEBUG: 用户查询成功, userId={}, 开始验证密码", user.getUserId());
-            // 验证密码
-            if (!PasswordUtil.verifyPassword(request.getPassword(), user.getPassword())) {
-                log.warn("登录失败: 密码错误, username={}", request.getUsername());
-                log.debug("DEBUG: 密码验证失败");
-                return LoginResponse.fail("用户名或密码错误");
-            }
+        log.debug("DEBUG: 用户查询成功, userId={}, 开始验证密码", user.getUserId());
+        // 验证密码（线程池饱和时直接抛出 RejectedExecutionException）
+        return passwordHasher.verifyAsync(request.getPassword(), user.getPassword())
+                .thenApply(matches -> {
+                    if (!matches) {
+                        log.warn("登录失败: 密码错误, username={}", request.getUsername());
+                        return LoginResponse.fail("用户名或密码错误");
+                    }
 
-            log.debug("DEBUG: 密码验证成功, 开始生成 JWT Token");
-            // 生成 JWT Token
-            String token = JwtUtil.generateToken(user.getUserId(), user.getUserName());
-            log.debug("DEBUG: JWT Token 生成成功, token={}", token.substring(0, 20) + "...");
+                    if (passwordHasher.needsRehash(user.getPassword())) {
+                        rehashInBackground(user, request.getPassword());
+                    }
 
-            log.info("用户登录成功: userId={}, userName={}", user.getUserId(), user.getUserName());
-            log.info("========== 用户登录请求结束 ==========");
+                    // 生成 JWT Token
+                    String token = tokenCodec.generate(user.getUserId(), user.getUserName());
+                    log.debug("DEBUG: JWT Token 生成成功, token={}", token.substring(0, 20) + "...");
 
-            // 返回成功响应
-            return LoginResponse.success(token, user.getUserId(), user.getUserName(), user.getName());
+                    log.info("用户登录成功: userId={}, userName={}", user.getUserId(), user.getUserName());
+                    log.info("========== 用户登录请求结束 ==========");
 
-        } catch (Exception e) {
-            log.error("登录过程中发生错误: username={}, error={}", request.getUsername(), e.getMessage(), e);
-            log.debug("DEBUG: 异常堆栈", e);
-            return LoginResponse.fail("系统错误，请稍后重试");
+                    // 返回成功响应
+                    return LoginResponse.success(token, user.getUserId(), user.getUserName(), user.getName());
+                })
+                .exceptionally(e -> {
+                    log.error("登录过程中发生错误: username={}, error={}", request.getUsername(), e.getMessage(), e);
+                    return LoginResponse.fail("系统错误，请稍后重试");
+                });
+    }
+
+    /**
+     * 按当前配置的成本重新加密密码（不阻塞登录，失败只记录日志）
+     */
+    private void rehashInBackground(SysUser user, String plainPassword) {
+        try {
+            passwordHasher.hashAsync(plainPassword)
+                    .thenAccept(newHash -> {
+                        if (userRepository.replacePassword(user.getUserId(), user.getPassword(), newHash)) {
+                            log.info("密码已按新成本重新加密: userId={}", user.getUserId());
+                        }
+                    })
+                    .exceptionally(e -> {
+                        log.warn("密码重新加密失败: userId={}, error={}", user.getUserId(), e.getMessage());
+                        return null;
+                    });
+        } catch (RejectedExecutionException e) {
+            // 线程池繁忙时跳过，下次登录再处理
+            log.debug("密码哈希线程池繁忙，跳过重新加密: userId={}", user.getUserId());
         }
     }
 
     /**
      * 创建用户（注册）
+     * 只有一条插入语句，不开启事务，密码哈希期间不占用数据库连接
+     *
+     * @throws RejectedExecutionException 密码哈希线程池饱和
      */
-    @Transactional
     public boolean register(String username, String password, String name, String email, String phone) {
         log.info("用户注册请求: username={}, name={}, email={}", username, name, email);
 
         try {
             // 通过 Repository 检查用户是否已存在
-            if (userRepository.existsByUsername(username)) {
+            if (usernameIndex.existsByUsername(username)) {
                 log.warn("注册失败: 用户名已存在, username={}", username);
                 return false;
             }
@@ -94,7 +142,7 @@ public class AuthService {
             SysUser user = new SysUser();
             user.setUserId(UUID.randomUUID().toString().replace("-", ""));
             user.setUserName(username);
-            user.setPassword(PasswordUtil.hashPassword(password));
+            user.setPassword(passwordHasher.hash(password));
             user.setName(name);
             user.setEmail(email);
             user.setPhone(phone);
@@ -104,9 +152,21 @@ public class AuthService {
             user.setIsCloud(false);
 
             // 通过 Repository 保存到数据库
-            boolean success = userRepository.save(user);
+            boolean success;
+            try {
+                success = userRepository.save(user);
+            } catch (RuntimeException e) {
+                if (!(e.getCause() instanceof DuplicateKeyException)) {
+                    throw e;
+                }
+                // 本地索引漏判，由用户名唯一约束拒绝
+                usernameIndex.recordDuplicate(username);
+                log.warn("注册失败: 用户名已存在, username={}", username);
+                return false;
+            }
 
             if (success) {
+                usernameIndex.add(username);
                 log.info("用户注册成功: userId={}, userName={}", user.getUserId(), user.getUserName());
             } else {
                 log.warn("用户注册失败: username={}", username);
@@ -114,6 +174,8 @@ public class AuthService {
 
             return success;
 
+        } catch (RejectedExecutionException e) {
+            throw e;
         } catch (Exception e) {
             log.error("注册过程中发生错误: username={}, error={}", username, e.getMessage(), e);
             return false;
@@ -126,33 +188,61 @@ public class AuthService {
     public boolean validateToken(String token) {
         log.debug("验证Token请求");
         try {
-            // 首先检查Token是否在黑名单中
-            if (tokenBlacklistService.isBlacklisted(token)) {
-                log.warn("Token验证失败: Token已在黑名单中（用户已登出）");
+            TokenClaims claims = verifyToken(token);
+            if (claims == null) {
                 return false;
             }
-
-            boolean isValid = JwtUtil.validateToken(token);
-            if (isValid) {
-                String username = JwtUtil.getUsername(token);
-                log.debug("Token验证成功: username={}", username);
-            } else {
-                log.warn("Token验证失败: Token无效或已过期");
-            }
-            return isValid;
+            log.debug("Token验证成功: username={}", claims.username());
+            return true;
         } catch (Exception e) {
             log.error("Token验证过程中发生错误: error={}", e.getMessage(), e);
             return false;
         }
     }
 
+    /**
+     * 校验 Token 并返回声明（黑名单 + 签名 + 过期 + 用户级吊销），短时间内重复校验走缓存
+     *
+     * @return 已验证的声明，无效、过期、已登出或已被吊销时返回 null
+     */
+    public TokenClaims verifyToken(String token) {
+        TokenClaims verified = verifiedTokenCache.get(token, () -> {
+            // 先发起黑名单查询（按摘要，无需解析Token），与签名校验并行
+            CompletableFuture<Boolean> blacklisted = tokenBlacklistService.isBlacklistedAsync(token).toCompletableFuture();
+            // 一次解析完成签名和过期校验
+            TokenClaims claims = tokenCodec.tryParse(token);
+            if (claims == null) {
+                log.warn("Token验证失败: Token无效或已过期");
+                return null;
+            }
+            if (blacklisted.join()) {
+                log.warn("Token验证失败: Token已在黑名单中（用户已登出）");
+                return null;
+            }
+            return claims;
+        });
+        // 用户级吊销水位只查本地镜像，缓存命中时同样检查
+        if (verified != null && tokenRevocationService.isRevoked(verified)) {
+            log.warn("Token验证失败: 用户会话已被吊销, userId={}", verified.userId());
+            return null;
+        }
+        return verified;
+    }
+
+    /**
+     * 吊销用户所有会话（修改密码、管理员锁定等场景）
+     */
+    public void revokeAllSessions(String userId) {
+        tokenRevocationService.revokeAllSessions(userId);
+    }
+
     /**
      * 从 Token 获取用户名
      */
     public String getUsernameFromToken(String token) {
         log.debug("从Token获取用户名");
         try {
-            String username = JwtUtil.getUsername(token);
+            String username = tokenCodec.parse(token).username();
             log.debug("成功从Token获取用户名: username={}", username);
             return username;
         } catch (Exception e) {
@@ -169,25 +259,18 @@ public class AuthService {
         log.info("用户登出请求");
         try {
             // 验证Token是否有效（不检查黑名单）
-            if (!JwtUtil.validateToken(token)) {
+            TokenClaims claims = tokenCodec.tryParse(token);
+            if (claims == null) {
                 log.warn("登出失败: Token无效或已过期");
                 return false;
             }
 
-            // 获取Token过期时间
-            java.util.Date expirationDate = JwtUtil.getExpirationDate(token);
-            if (expirationDate == null) {
-                log.warn("登出失败: 无法获取Token过期时间");
-                return false;
-            }
-
-            // 获取用户信息
-            String username = JwtUtil.getUsername(token);
-
-            // 将Token加入黑名单
-            tokenBlacklistService.addToBlacklist(token, expirationDate);
+            // 将Token加入黑名单，过期时间与Token对齐
+            tokenBlacklistService.addToBlacklist(token, Date.from(claims.expiresAt()));
+            // 同步吊销本节点缓存
+            verifiedTokenCache.revoke(token, claims.expiresAt());
 
-            log.info("用户登出成功: username={}", username);
+            log.info("用户登出成功: username={}", claims.username());
             return true;
 
         } catch (Exception e) {
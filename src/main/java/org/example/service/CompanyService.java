@@ -6,11 +6,12 @@ import org.example.entity.SysCompany;
 import org.example.entity.SysUser;
 import org.example.repository.CompanyRepository;
 import org.example.repository.UserRepository;
-import org.example.util.PasswordUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.UUID;
@@ -20,18 +21,42 @@ import java.util.stream.Collectors;
 public class CompanyService {
 
     private static final Logger log = LoggerFactory.getLogger(CompanyService.class);
+
+    /**
+     * 公司管理员默认密码
+     */
+    private static final String DEFAULT_ADMIN_PASSWORD = "admin123";
+
     private final CompanyRepository companyRepository;
     private final UserRepository userRepository;
-
-    public CompanyService(CompanyRepository companyRepository, UserRepository userRepository) {
+    private final PasswordHasher passwordHasher;
+    private final UsernameIndex usernameIndex;
+    private final OrgSnapshotService orgSnapshotService;
+    private final TransactionTemplate transactionTemplate;
+
+    public CompanyService(CompanyRepository companyRepository, UserRepository userRepository,
+                          PasswordHasher passwordHasher, UsernameIndex usernameIndex,
+                          OrgSnapshotService orgSnapshotService, TransactionTemplate transactionTemplate) {
         this.companyRepository = companyRepository;
         this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.usernameIndex = usernameIndex;
+        this.orgSnapshotService = orgSnapshotService;
+        this.transactionTemplate = transactionTemplate;
     }
 
-    @Transactional
+    /**
+     * 创建公司及其管理员
+     * 管理员密码哈希在事务开始前完成，哈希期间不占用数据库连接
+     */
     public CompanyResponse createCompany(CreateCompanyRequest request) {
         log.info("创建公司: name={}, code={}", request.getCompanyName(), request.getCompanyCode());
 
+        String adminPasswordHash = passwordHasher.hash(DEFAULT_ADMIN_PASSWORD);
+        return transactionTemplate.execute(status -> doCreateCompany(request, adminPasswordHash));
+    }
+
+    private CompanyResponse doCreateCompany(CreateCompanyRequest request, String adminPasswordHash) {
         if (request.getCompanyCode() != null && companyRepository.findByCompanyCode(request.getCompanyCode()) != null) {
             throw new RuntimeException("公司编码已存在: " + request.getCompanyCode());
         }
@@ -51,7 +76,8 @@ public class CompanyService {
         log.info("公司创建成功: companyId={}", company.getCompanyId());
 
         // 自动创建公司管理员
-        createCompanyAdmin(company);
+        createCompanyAdmin(company, adminPasswordHash);
+        orgSnapshotService.refresh();
 
         return convertToResponse(company);
     }
@@ -59,13 +85,13 @@ public class CompanyService {
     /**
      * 为新创建的公司自动生成公司管理员
      */
-    private void createCompanyAdmin(SysCompany company) {
+    private void createCompanyAdmin(SysCompany company, String passwordHash) {
         // 生成管理员用户名：admin_公司编码 或 admin_公司ID
         String adminUsername = "admin_" + (company.getCompanyCode() != null ?
                 company.getCompanyCode() : company.getCompanyId());
 
         // 检查用户名是否已存在
-        if (userRepository.existsByUsername(adminUsername)) {
+        if (usernameIndex.existsByUsername(adminUsername)) {
             log.warn("公司管理员用户名已存在: username={}", adminUsername);
             throw new RuntimeException("公司管理员用户名已存在: " + adminUsername);
         }
@@ -74,8 +100,7 @@ public class CompanyService {
         SysUser adminUser = new SysUser();
         adminUser.setUserId(UUID.randomUUID().toString().replace("-", ""));
         adminUser.setUserName(adminUsername);
-        // 默认密码：admin123
-        adminUser.setPassword(PasswordUtil.hashPassword("admin123"));
+        adminUser.setPassword(passwordHash);
         adminUser.setName(company.getCompanyName() + "-管理员");
         adminUser.setCompanyId(company.getCompanyId());
         adminUser.setEmail(adminUsername + "@" + (company.getCompanyCode() != null ?
@@ -87,27 +112,44 @@ public class CompanyService {
         adminUser.setIsCloud(false);
 
         // 保存管理员用户
-        boolean success = userRepository.save(adminUser);
+        boolean success;
+        try {
+            success = userRepository.save(adminUser);
+        } catch (RuntimeException e) {
+            if (!(e.getCause() instanceof DuplicateKeyException)) {
+                throw e;
+            }
+            // 本地索引漏判，由用户名唯一约束拒绝
+            usernameIndex.recordDuplicate(adminUsername);
+            throw new RuntimeException("公司管理员用户名已存在: " + adminUsername);
+        }
 
         if (!success) {
             log.error("公司管理员创建失败: companyId={}", company.getCompanyId());
             throw new RuntimeException("公司管理员创建失败");
         }
+        usernameIndex.add(adminUsername);
 
         log.info("公司管理员创建成功: companyId={}, userId={}, username={}",
                 company.getCompanyId(), adminUser.getUserId(), adminUser.getUserName());
     }
 
+    /**
+     * 根据ID获取公司（读组织结构快照，只含未删除的公司）
+     */
     public CompanyResponse getCompanyById(Long companyId) {
-        SysCompany company = companyRepository.findById(companyId);
-        if (company == null || company.getIsDelete() == 1) {
+        SysCompany company = orgSnapshotService.getSnapshot().findCompany(companyId);
+        if (company == null) {
             return null;
         }
         return convertToResponse(company);
     }
 
+    /**
+     * 获取所有未删除的公司（读组织结构快照）
+     */
     public List<CompanyResponse> getAllCompanies() {
-        List<SysCompany> companies = companyRepository.findActiveCompanies();
+        List<SysCompany> companies = orgSnapshotService.getSnapshot().getCompanies();
         return companies.stream().map(this::convertToResponse).collect(Collectors.toList());
     }
 
@@ -122,7 +164,11 @@ public class CompanyService {
     @Transactional
     public boolean deleteCompany(Long companyId) {
         log.info("软删除公司: companyId={}", companyId);
-        return companyRepository.softDeleteById(companyId);
+        boolean deleted = companyRepository.softDeleteById(companyId);
+        if (deleted) {
+            orgSnapshotService.refresh();
+        }
+        return deleted;
     }
 
     @Transactional
@@ -144,6 +190,7 @@ public class CompanyService {
         if (request.getPhone() != null) company.setPhone(request.getPhone());
 
         companyRepository.updateById(company);
+        orgSnapshotService.refresh();
         return convertToResponse(company);
     }
 
@@ -4,12 +4,12 @@ import org.example.dto.CreateDepartmentRequest;
 import org.example.dto.DepartmentResponse;
 import org.example.entity.SysDepartment;
 import org.example.repository.DepartmentRepository;
+import org.example.tree.TreeAssembler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -23,10 +23,18 @@ public class DepartmentService {
 
     private static final Logger log = LoggerFactory.getLogger(DepartmentService.class);
 
+    /**
+     * 部门树组装器，兄弟节点保持查询顺序（level, department_id）
+     */
+    private static final TreeAssembler<SysDepartment, Long> DEPARTMENT_TREE = new TreeAssembler<>(
+            SysDepartment::getDepartmentId, SysDepartment::getParentId, null);
+
     private final DepartmentRepository departmentRepository;
+    private final OrgSnapshotService orgSnapshotService;
 
-    public DepartmentService(DepartmentRepository departmentRepository) {
+    public DepartmentService(DepartmentRepository departmentRepository, OrgSnapshotService orgSnapshotService) {
         this.departmentRepository = departmentRepository;
+        this.orgSnapshotService = orgSnapshotService;
     }
 
     /**
@@ -60,6 +68,7 @@ public class DepartmentService {
 
         // 3. 保存
         departmentRepository.save(department);
+        orgSnapshotService.refresh();
         log.info("部门创建成功: departmentId={}", department.getDepartmentId());
 
         return convertToResponse(department);
@@ -80,18 +89,18 @@ public class DepartmentService {
      * 根据公司ID获取所有部门
      */
     public List<DepartmentResponse> getDepartmentsByCompanyId(Long companyId) {
-        List<SysDepartment> departments = departmentRepository.findByCompanyId(companyId);
+        List<SysDepartment> departments = orgSnapshotService.getSnapshot().getDepartmentsByCompany(companyId);
         return departments.stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
     }
 
     /**
-     * 获取部门树（根据公司ID）
+     * 获取部门树（根据公司ID，读组织结构快照）
      */
     public List<DepartmentResponse> getDepartmentTree(Long companyId) {
-        List<SysDepartment> allDepartments = departmentRepository.findByCompanyId(companyId);
-        return buildTree(allDepartments, null);
+        List<SysDepartment> allDepartments = orgSnapshotService.getSnapshot().getDepartmentsByCompany(companyId);
+        return buildTree(allDepartments);
     }
 
     /**
@@ -105,38 +114,47 @@ public class DepartmentService {
     }
 
     /**
-     * 获取子部门列表
+     * 获取子部门列表（读组织结构快照）
      */
     public List<DepartmentResponse> getChildDepartments(Long parentId) {
-        List<SysDepartment> children = departmentRepository.findByParentId(parentId);
+        List<SysDepartment> children = orgSnapshotService.getSnapshot().getChildren(parentId);
         return children.stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
     }
 
     /**
-     * 获取父部门
+     * 获取父部门（读组织结构快照）
      */
     public DepartmentResponse getParentDepartment(Long departmentId) {
-        SysDepartment department = departmentRepository.findById(departmentId);
-        if (department == null || department.getParentId() == null) {
-            return null;
-        }
-        SysDepartment parent = departmentRepository.findById(department.getParentId());
+        SysDepartment parent = orgSnapshotService.getSnapshot().findParent(departmentId);
         return parent != null ? convertToResponse(parent) : null;
     }
 
     /**
-     * 获取兄弟部门
+     * 获取兄弟部门（读组织结构快照，根部门的兄弟为同公司的其他根部门）
      */
     public List<DepartmentResponse> getSiblingDepartments(Long departmentId) {
-        SysDepartment department = departmentRepository.findById(departmentId);
-        if (department == null) {
-            return new ArrayList<>();
-        }
-        List<SysDepartment> siblings = departmentRepository.findByParentId(department.getParentId());
+        List<SysDepartment> siblings = orgSnapshotService.getSnapshot().getSiblings(departmentId);
         return siblings.stream()
-                .filter(d -> !Objects.equals(d.getDepartmentId(), departmentId))
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 获取所有子孙部门（不含自身）
+     */
+    public List<DepartmentResponse> getDescendantDepartments(Long departmentId) {
+        return departmentRepository.findDescendants(departmentId).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 获取所有祖先部门（不含自身），从根到直接父部门
+     */
+    public List<DepartmentResponse> getAncestorDepartments(Long departmentId) {
+        return departmentRepository.findAncestors(departmentId).stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
     }
@@ -160,51 +178,32 @@ public class DepartmentService {
             if (newParent == null) {
                 throw new RuntimeException("新父部门不存在: " + newParentId);
             }
-            // 不能移动到自己的子孙节点下
-            if (isDescendant(departmentId, newParentId)) {
-                throw new RuntimeException("不能将部门移动到其子孙部门下");
+            // 不能移动到自己或自己的子孙节点下（一条递归查询）
+            if (departmentRepository.isSelfOrDescendant(departmentId, newParentId)) {
+                throw new RuntimeException("不能将部门移动到其自身或子孙部门下");
             }
             newLevel = newParent.getLevel() + 1;
         }
 
+        int delta = newLevel - (department.getLevel() != null ? department.getLevel() : 1);
+
         // 更新parent_id和level
         department.setParentId(newParentId);
         department.setLevel(newLevel);
         departmentRepository.update(department);
+        departmentRepository.moveHierarchy(departmentId, newParentId);
 
-        // 递归更新所有子孙部门的level
-        updateDescendantsLevel(departmentId, newLevel);
+        // 一条递归UPDATE平移整棵子树的level
+        if (delta != 0) {
+            int shifted = departmentRepository.shiftDescendantsLevel(departmentId, delta);
+            log.debug("子孙部门层级已平移: departmentId={}, delta={}, count={}", departmentId, delta, shifted);
+        }
+        orgSnapshotService.refresh();
 
         log.info("部门移动成功: departmentId={}, newParentId={}", departmentId, newParentId);
         return true;
     }
 
-    /**
-     * 检查targetId是否是sourceId的子孙
-     */
-    private boolean isDescendant(Long sourceId, Long targetId) {
-        SysDepartment target = departmentRepository.findById(targetId);
-        while (target != null && target.getParentId() != null) {
-            if (Objects.equals(target.getParentId(), sourceId)) {
-                return true;
-            }
-            target = departmentRepository.findById(target.getParentId());
-        }
-        return false;
-    }
-
-    /**
-     * 递归更新子孙部门的level
-     */
-    private void updateDescendantsLevel(Long parentId, int parentLevel) {
-        List<SysDepartment> children = departmentRepository.findByParentId(parentId);
-        for (SysDepartment child : children) {
-            child.setLevel(parentLevel + 1);
-            departmentRepository.update(child);
-            updateDescendantsLevel(child.getDepartmentId(), child.getLevel());
-        }
-    }
-
     /**
      * 删除部门
      */
@@ -226,22 +225,53 @@ public class DepartmentService {
 
         // 删除部门
         int result = departmentRepository.deleteById(departmentId);
+        if (result > 0) {
+            orgSnapshotService.refresh();
+        }
         log.info("部门删除结果: departmentId={}, result={}", departmentId, result > 0);
         return result > 0;
     }
 
+    /**
+     * 校验层级索引（闭包表）与 parent_id 是否一致
+     *
+     * @return 差异行数，0 表示一致
+     */
+    public long verifyHierarchyIndex() {
+        if (!departmentRepository.isHierarchyIndexEnabled()) {
+            throw new RuntimeException("部门层级索引未启用");
+        }
+        long mismatches = departmentRepository.countHierarchyMismatches();
+        if (mismatches > 0) {
+            log.warn("部门层级索引不一致: mismatches={}", mismatches);
+        }
+        return mismatches;
+    }
+
+    /**
+     * 按 parent_id 全量重建层级索引（闭包表）
+     *
+     * @return 写入的闭包行数
+     */
+    @Transactional
+    public int rebuildHierarchyIndex() {
+        if (!departmentRepository.isHierarchyIndexEnabled()) {
+            throw new RuntimeException("部门层级索引未启用");
+        }
+        int rows = departmentRepository.rebuildHierarchyIndex();
+        log.info("部门层级索引已重建: rows={}", rows);
+        return rows;
+    }
+
     /**
      * 构建树形结构
      */
-    private List<DepartmentResponse> buildTree(List<SysDepartment> departments, Long parentId) {
-        return departments.stream()
-                .filter(d -> Objects.equals(d.getParentId(), parentId))
-                .map(d -> {
-                    DepartmentResponse response = convertToResponse(d);
-                    response.setChildren(buildTree(departments, d.getDepartmentId()));
-                    return response;
-                })
-                .collect(Collectors.toList());
+    private List<DepartmentResponse> buildTree(List<SysDepartment> departments) {
+        return DEPARTMENT_TREE.<DepartmentResponse>assemble(departments, (d, children) -> {
+            DepartmentResponse response = convertToResponse(d);
+            response.setChildren(children);
+            return response;
+        }).getRoots();
     }
 
     /**
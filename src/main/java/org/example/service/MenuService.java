@@ -5,6 +5,8 @@ import org.example.entity.SysMenu;
 import org.example.entity.SysPostMenu;
 import org.example.repository.MenuRepository;
 import org.example.repository.PostMenuRepository;
+import org.example.tree.CodePrefixIndex;
+import org.example.tree.TreeAssembler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -21,13 +23,26 @@ public class MenuService {
 
     private static final Logger log = LoggerFactory.getLogger(MenuService.class);
 
+    /**
+     * 菜单树组装器，兄弟节点按 sort_order 排序（空值靠后）
+     */
+    private static final TreeAssembler<SysMenu, Long> MENU_TREE = new TreeAssembler<>(
+            SysMenu::getMenuId, SysMenu::getParentId,
+            Comparator.comparing(SysMenu::getSortOrder, Comparator.nullsLast(Comparator.naturalOrder())));
+
     private final MenuRepository menuRepository;
     private final PostMenuRepository postMenuRepository;
+    private final PermissionIndexService permissionIndexService;
+    private final RoutePayloadCache routePayloadCache;
 
     public MenuService(MenuRepository menuRepository,
-                       PostMenuRepository postMenuRepository) {
+                       PostMenuRepository postMenuRepository,
+                       PermissionIndexService permissionIndexService,
+                       RoutePayloadCache routePayloadCache) {
         this.menuRepository = menuRepository;
         this.postMenuRepository = postMenuRepository;
+        this.permissionIndexService = permissionIndexService;
+        this.routePayloadCache = routePayloadCache;
     }
 
     /**
@@ -61,7 +76,8 @@ public class MenuService {
         menu.setDescription(request.getDescription());
 
         menuRepository.save(menu);
-
+        permissionIndexService.putMenu(menu.getMenuId(), menu.getMenuCode());
+        routePayloadCache.invalidate();
 
         log.info("菜单创建成功: menuId={}", menu.getMenuId());
         return convertToResponse(menu);
@@ -89,7 +105,7 @@ public class MenuService {
      */
     public List<MenuResponse> getMenuTree() {
         List<SysMenu> allMenus = menuRepository.findAll();
-        return buildTree(allMenus, null);
+        return buildTree(allMenus);
     }
 
     /**
@@ -104,7 +120,10 @@ public class MenuService {
                 .filter(m -> m.getMenuType() != null && m.getMenuType() <= 2)
                 .collect(Collectors.toList());
 
-        return buildTreeWithPerms(routeMenus, null, userId);
+        // 一次查询取出用户对所有菜单的权限，避免逐节点查询
+        Map<Long, Integer> permTypes = postMenuRepository.findUserPermTypes(userId);
+
+        return buildTreeWithPerms(routeMenus, permTypes);
     }
 
     /**
@@ -125,7 +144,24 @@ public class MenuService {
                 .map(SysMenu::getMenuCode)
                 .collect(Collectors.toList());
 
-        return buildRouteTree(routeMenus, null, permissions);
+        // 按前缀建立一次索引，每个路由节点只需一次区间查找
+        return buildRouteTree(routeMenus, new CodePrefixIndex(permissions));
+    }
+
+    /**
+     * 获取用户菜单树（预序列化，按岗位集合缓存）
+     */
+    public RawJson getUserMenuTreePayload(String userId) {
+        long[] postIds = permissionIndexService.getUserPostIds(userId);
+        return routePayloadCache.get(RoutePayloadCache.Kind.TREE, postIds, () -> getUserMenuTree(userId));
+    }
+
+    /**
+     * 获取用户动态路由（预序列化，按岗位集合缓存）
+     */
+    public RawJson getUserRoutesPayload(String userId) {
+        long[] postIds = permissionIndexService.getUserPostIds(userId);
+        return routePayloadCache.get(RoutePayloadCache.Kind.ROUTES, postIds, () -> getUserRoutes(userId));
     }
 
     /**
@@ -140,39 +176,46 @@ public class MenuService {
     }
 
     /**
-     * 检查用户是否有某权限
+     * 检查用户是否有某权限（走内存权限索引）
      */
     public boolean hasPermission(String userId, String menuCode) {
-        Integer permType = postMenuRepository.findUserPermTypeByCode(userId, menuCode);
+        Integer permType = permissionIndexService.findUserPermTypeByCode(userId, menuCode);
         return permType != null && permType > 0;
     }
 
     /**
-     * 检查用户权限类型
+     * 检查用户权限类型（走内存权限索引）
      */
     public Integer getUserPermType(String userId, String menuCode) {
-        return postMenuRepository.findUserPermTypeByCode(userId, menuCode);
+        return permissionIndexService.findUserPermTypeByCode(userId, menuCode);
     }
 
     /**
      * 分配岗位权限
+     * 差量覆盖：只写入实际变化的菜单，无变化时不刷新权限索引和路由缓存
+     *
+     * @return 实际发生变化的菜单
      */
     @Transactional
-    public void assignMenuPermissions(AssignMenuPermRequest request) {
+    public AssignResult assignMenuPermissions(AssignMenuPermRequest request) {
         log.info("分配岗位权限: postId={}, permissions.size={}",
                 request.getPostId(), request.getPermissions().size());
 
-        // 先删除原有权限
-        postMenuRepository.deleteByPostId(request.getPostId());
-
-        // 添加新权限
-        List<SysPostMenu> postMenus = request.getPermissions().stream()
-                .map(p -> new SysPostMenu(request.getPostId(), p.getMenuId(), p.getPermType()))
-                .collect(Collectors.toList());
+        // 同一菜单重复提交时以后者为准
+        Map<Long, Integer> permTypes = new LinkedHashMap<>();
+        for (AssignMenuPermRequest.MenuPermItem item : request.getPermissions()) {
+            permTypes.put(item.getMenuId(), item.getPermType());
+        }
 
-        postMenuRepository.saveAll(postMenus);
+        AssignResult result = postMenuRepository.replacePostPermissions(request.getPostId(), permTypes);
+        if (result.hasChanges()) {
+            permissionIndexService.refreshPost(request.getPostId());
+            routePayloadCache.invalidate();
+        }
 
-        log.info("岗位权限分配完成: postId={}", request.getPostId());
+        log.info("岗位权限分配完成: postId={}, added={}, updated={}, removed={}", request.getPostId(),
+                result.getAdded(), result.getUpdated(), result.getRemoved());
+        return result;
     }
 
     /**
@@ -206,6 +249,8 @@ public class MenuService {
 
         // 删除权限关联
         postMenuRepository.deleteByMenuId(menuId);
+        permissionIndexService.removeMenu(menuId);
+        routePayloadCache.invalidate();
 
         return menuRepository.deleteById(menuId);
     }
@@ -213,66 +258,49 @@ public class MenuService {
     /**
      * 构建树形结构
      */
-    private List<MenuResponse> buildTree(List<SysMenu> menus, Long parentId) {
-        return menus.stream()
-                .filter(menu -> Objects.equals(menu.getParentId(), parentId))
-                .map(menu -> {
-                    MenuResponse response = convertToResponse(menu);
-                    response.setChildren(buildTree(menus, menu.getMenuId()));
-                    return response;
-                })
-                .sorted(Comparator.comparing(MenuResponse::getSortOrder,
-                        Comparator.nullsLast(Comparator.naturalOrder())))
-                .collect(Collectors.toList());
+    private List<MenuResponse> buildTree(List<SysMenu> menus) {
+        return MENU_TREE.<MenuResponse>assemble(menus, (menu, children) -> {
+            MenuResponse response = convertToResponse(menu);
+            response.setChildren(children);
+            return response;
+        }).getRoots();
     }
 
     /**
      * 构建带权限的树形结构
      */
-    private List<MenuResponse> buildTreeWithPerms(List<SysMenu> menus, Long parentId, String userId) {
-        return menus.stream()
-                .filter(menu -> Objects.equals(menu.getParentId(), parentId))
-                .map(menu -> {
-                    MenuResponse response = convertToResponse(menu);
-                    Integer permType = postMenuRepository.findUserPermType(userId, menu.getMenuId());
-                    response.setPermType(permType);
-                    response.setChildren(buildTreeWithPerms(menus, menu.getMenuId(), userId));
-                    return response;
-                })
-                .sorted(Comparator.comparing(MenuResponse::getSortOrder,
-                        Comparator.nullsLast(Comparator.naturalOrder())))
-                .collect(Collectors.toList());
+    private List<MenuResponse> buildTreeWithPerms(List<SysMenu> menus, Map<Long, Integer> permTypes) {
+        return MENU_TREE.<MenuResponse>assemble(menus, (menu, children) -> {
+            MenuResponse response = convertToResponse(menu);
+            response.setPermType(permTypes.get(menu.getMenuId()));
+            response.setChildren(children);
+            return response;
+        }).getRoots();
     }
 
     /**
      * 构建路由树（用于前端动态路由）
      */
-    private List<UserRouteResponse> buildRouteTree(List<SysMenu> menus, Long parentId, List<String> permissions) {
-        return menus.stream()
-                .filter(menu -> Objects.equals(menu.getParentId(), parentId))
-                .map(menu -> {
-                    UserRouteResponse route = new UserRouteResponse();
-                    route.setPath(menu.getMenuPath());
-                    route.setName(menu.getMenuCode());
-                    route.setComponent(menu.getMenuComponent());
-
-                    UserRouteResponse.RouteMeta meta = new UserRouteResponse.RouteMeta();
-                    meta.setTitle(menu.getMenuName());
-                    meta.setIcon(menu.getMenuIcon());
-                    meta.setHidden(!Boolean.TRUE.equals(menu.getIsVisible()));
-
-                    // 获取当前菜单下的按钮/字段权限
-                    List<String> menuPerms = permissions.stream()
-                            .filter(p -> p.startsWith(menu.getMenuCode() + ":"))
-                            .collect(Collectors.toList());
-                    meta.setPermissions(menuPerms);
-
-                    route.setMeta(meta);
-                    route.setChildren(buildRouteTree(menus, menu.getMenuId(), permissions));
-
-                    return route;
-                })
-                .collect(Collectors.toList());
+    private List<UserRouteResponse> buildRouteTree(List<SysMenu> menus, CodePrefixIndex permissions) {
+        return MENU_TREE.<UserRouteResponse>assemble(menus, (menu, children) -> {
+            UserRouteResponse route = new UserRouteResponse();
+            route.setPath(menu.getMenuPath());
+            route.setName(menu.getMenuCode());
+            route.setComponent(menu.getMenuComponent());
+
+            UserRouteResponse.RouteMeta meta = new UserRouteResponse.RouteMeta();
+            meta.setTitle(menu.getMenuName());
+            meta.setIcon(menu.getMenuIcon());
+            meta.setHidden(!Boolean.TRUE.equals(menu.getIsVisible()));
+
+            // 获取当前菜单下的按钮/字段权限
+            meta.setPermissions(permissions.findChildren(menu.getMenuCode()));
+
+            route.setMeta(meta);
+            route.setChildren(children);
+
+            return route;
+        }).getRoots();
     }
 
     /**
@@ -0,0 +1,453 @@
+package org.example.service;
+
+import org.example.entity.SysCompany;
+import org.example.entity.SysDepartment;
+import org.example.entity.SysPost;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 组织结构快照（公司、部门、岗位）
+ * <p>
+ * 不可变：构建完成后不再修改，读线程无需加锁。各实体按ID排序存入数组，
+ * ID 通过二分查找映射为数组下标（序号），父子关系、层级深度、公司下的部门与岗位均预先计算为序号数组。
+ * <p>
+ * 快照中的实体对象只读，调用方不得修改。
+ */
+public final class OrgSnapshot {
+
+    private static final int NONE = -1;
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * 快照版本，每次重建递增
+     */
+    private final long version;
+
+    /**
+     * 公司ID（升序，包含仅被部门引用的公司ID），与下列公司维度数组下标对应
+     */
+    private final long[] companyIds;
+    /**
+     * 未删除的公司，已删除或不存在时为 null
+     */
+    private final SysCompany[] companies;
+    /**
+     * 公司下的部门序号，按 (level, department_id) 排序
+     */
+    private final int[][] departmentsByCompany;
+    /**
+     * 公司下的岗位序号，按 post_id 排序
+     */
+    private final int[][] postsByCompany;
+
+    /**
+     * 部门ID（升序），与下列部门维度数组下标对应
+     */
+    private final long[] departmentIds;
+    private final SysDepartment[] departments;
+    /**
+     * 父部门序号，根部门或父部门不存在时为 -1
+     */
+    private final int[] parents;
+    /**
+     * 子部门序号，按 department_id 排序
+     */
+    private final int[][] children;
+    /**
+     * 由 parent_id 计算的深度，根部门为 1
+     */
+    private final int[] depths;
+
+    /**
+     * 岗位（按 post_id 排序）
+     */
+    private final SysPost[] posts;
+
+    private final long estimatedBytes;
+
+    private OrgSnapshot(long version, long[] companyIds, SysCompany[] companies,
+                        int[][] departmentsByCompany, int[][] postsByCompany,
+                        long[] departmentIds, SysDepartment[] departments,
+                        int[] parents, int[][] children, int[] depths, SysPost[] posts) {
+        this.version = version;
+        this.companyIds = companyIds;
+        this.companies = companies;
+        this.departmentsByCompany = departmentsByCompany;
+        this.postsByCompany = postsByCompany;
+        this.departmentIds = departmentIds;
+        this.departments = departments;
+        this.parents = parents;
+        this.children = children;
+        this.depths = depths;
+        this.posts = posts;
+        this.estimatedBytes = estimateBytes();
+    }
+
+    /**
+     * 构建快照
+     *
+     * @param companies   未删除的公司
+     * @param departments 全部部门
+     * @param posts       全部岗位
+     */
+    public static OrgSnapshot build(long version, List<SysCompany> companies,
+                                    List<SysDepartment> departments, List<SysPost> posts) {
+        // 1. 部门按ID排序，建立父子关系
+        SysDepartment[] depts = departments.stream()
+                .sorted(Comparator.comparing(SysDepartment::getDepartmentId))
+                .toArray(SysDepartment[]::new);
+        long[] departmentIds = new long[depts.length];
+        for (int i = 0; i < depts.length; i++) {
+            departmentIds[i] = depts[i].getDepartmentId();
+        }
+        int[] parents = new int[depts.length];
+        int[] childCounts = new int[depts.length];
+        for (int i = 0; i < depts.length; i++) {
+            Long parentId = depts[i].getParentId();
+            parents[i] = parentId != null ? indexOf(departmentIds, parentId) : NONE;
+            if (parents[i] >= 0) {
+                childCounts[parents[i]]++;
+            }
+        }
+        // 按ID顺序填充，子部门自然按 department_id 排序
+        int[][] children = new int[depts.length][];
+        for (int i = 0; i < depts.length; i++) {
+            children[i] = childCounts[i] == 0 ? EMPTY : new int[childCounts[i]];
+            childCounts[i] = 0;
+        }
+        for (int i = 0; i < depts.length; i++) {
+            if (parents[i] >= 0) {
+                children[parents[i]][childCounts[parents[i]]++] = i;
+            }
+        }
+        int[] depths = computeDepths(parents);
+
+        // 2. 岗位按ID排序
+        SysPost[] postArray = posts.stream()
+                .sorted(Comparator.comparing(SysPost::getPostId))
+                .toArray(SysPost[]::new);
+
+        // 3. 公司维度：公司表与部门引用的公司ID合并
+        long[] companyIds = Arrays.stream(new long[][]{
+                        companies.stream().mapToLong(SysCompany::getCompanyId).toArray(),
+                        Arrays.stream(depts).map(SysDepartment::getCompanyId)
+                                .filter(Objects::nonNull).mapToLong(Long::longValue).toArray()})
+                .flatMapToLong(Arrays::stream)
+                .sorted()
+                .distinct()
+                .toArray();
+        SysCompany[] companyArray = new SysCompany[companyIds.length];
+        for (SysCompany company : companies) {
+            companyArray[indexOf(companyIds, company.getCompanyId())] = company;
+        }
+
+        // 公司下的部门按 (level, department_id) 排序，与数据库查询顺序一致
+        List<List<Integer>> deptGroups = groups(companyIds.length);
+        Integer[] byLevel = new Integer[depts.length];
+        for (int i = 0; i < depts.length; i++) {
+            byLevel[i] = i;
+        }
+        Arrays.sort(byLevel, Comparator.comparingInt((Integer i) ->
+                depts[i].getLevel() != null ? depts[i].getLevel() : 0).thenComparingInt(i -> i));
+        for (int i : byLevel) {
+            Long companyId = depts[i].getCompanyId();
+            if (companyId != null) {
+                deptGroups.get(indexOf(companyIds, companyId)).add(i);
+            }
+        }
+
+        // 公司下的岗位：经所属部门关联公司，部门不存在的岗位不归属任何公司
+        List<List<Integer>> postGroups = groups(companyIds.length);
+        for (int i = 0; i < postArray.length; i++) {
+            Long departmentId = postArray[i].getDepartmentId();
+            int dept = departmentId != null ? indexOf(departmentIds, departmentId) : NONE;
+            if (dept >= 0 && depts[dept].getCompanyId() != null) {
+                postGroups.get(indexOf(companyIds, depts[dept].getCompanyId())).add(i);
+            }
+        }
+
+        return new OrgSnapshot(version, companyIds, companyArray, toArrays(deptGroups), toArrays(postGroups),
+                departmentIds, depts, parents, children, depths, postArray);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getCompanyCount() {
+        return (int) Arrays.stream(companies).filter(Objects::nonNull).count();
+    }
+
+    public int getDepartmentCount() {
+        return departments.length;
+    }
+
+    public int getPostCount() {
+        return posts.length;
+    }
+
+    /**
+     * 估算快照占用的堆内存（字节，按压缩指针估算，仅供监控参考）
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    // ==================== 公司 ====================
+
+    /**
+     * 未删除的公司，不存在时返回 null
+     */
+    public SysCompany findCompany(Long companyId) {
+        int index = indexOf(companyIds, companyId);
+        return index >= 0 ? companies[index] : null;
+    }
+
+    /**
+     * 全部未删除的公司（按 company_id 排序）
+     */
+    public List<SysCompany> getCompanies() {
+        List<SysCompany> result = new ArrayList<>(companies.length);
+        for (SysCompany company : companies) {
+            if (company != null) {
+                result.add(company);
+            }
+        }
+        return result;
+    }
+
+    // ==================== 部门 ====================
+
+    public SysDepartment findDepartment(Long departmentId) {
+        int index = indexOf(departmentIds, departmentId);
+        return index >= 0 ? departments[index] : null;
+    }
+
+    /**
+     * 部门名称，部门不存在时返回 null
+     */
+    public String findDepartmentName(Long departmentId) {
+        SysDepartment department = findDepartment(departmentId);
+        return department != null ? department.getDepartmentName() : null;
+    }
+
+    /**
+     * 父部门，根部门或部门不存在时返回 null
+     */
+    public SysDepartment findParent(Long departmentId) {
+        int index = indexOf(departmentIds, departmentId);
+        return index >= 0 && parents[index] >= 0 ? departments[parents[index]] : null;
+    }
+
+    /**
+     * 直接子部门（按 department_id 排序）
+     */
+    public List<SysDepartment> getChildren(Long parentId) {
+        int index = indexOf(departmentIds, parentId);
+        return index >= 0 ? select(departments, children[index]) : List.of();
+    }
+
+    /**
+     * 兄弟部门（不含自身）：同一父部门的子部门；根部门为同公司的其他根部门
+     */
+    public List<SysDepartment> getSiblings(Long departmentId) {
+        int index = indexOf(departmentIds, departmentId);
+        if (index < 0) {
+            return List.of();
+        }
+        List<SysDepartment> result = new ArrayList<>();
+        if (parents[index] >= 0) {
+            for (int sibling : children[parents[index]]) {
+                if (sibling != index) {
+                    result.add(departments[sibling]);
+                }
+            }
+            return result;
+        }
+        Long companyId = departments[index].getCompanyId();
+        int company = indexOf(companyIds, companyId);
+        if (company < 0) {
+            return result;
+        }
+        int[] ordinals = departmentsByCompany[company].clone();
+        Arrays.sort(ordinals);
+        for (int sibling : ordinals) {
+            if (sibling != index && departments[sibling].getParentId() == null) {
+                result.add(departments[sibling]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 部门深度（根部门为 1），部门不存在时返回 0
+     */
+    public int getDepth(Long departmentId) {
+        int index = indexOf(departmentIds, departmentId);
+        return index >= 0 ? depths[index] : 0;
+    }
+
+    /**
+     * 公司下的全部部门（按 level, department_id 排序）
+     */
+    public List<SysDepartment> getDepartmentsByCompany(Long companyId) {
+        int index = indexOf(companyIds, companyId);
+        return index >= 0 ? select(departments, departmentsByCompany[index]) : List.of();
+    }
+
+    // ==================== 岗位 ====================
+
+    /**
+     * 公司下的全部岗位（按 post_id 排序）
+     */
+    public List<SysPost> getPostsByCompany(Long companyId) {
+        int index = indexOf(companyIds, companyId);
+        return index >= 0 ? select(posts, postsByCompany[index]) : List.of();
+    }
+
+    /**
+     * 游标分页获取公司岗位
+     *
+     * @param afterPostId 上一页最后一条的岗位ID，为 null 时获取第一页
+     */
+    public List<SysPost> getPostsByCompany(Long companyId, Long afterPostId, int limit) {
+        int index = indexOf(companyIds, companyId);
+        if (index < 0 || limit <= 0) {
+            return List.of();
+        }
+        int[] ordinals = postsByCompany[index];
+        int from = 0;
+        if (afterPostId != null) {
+            // 岗位序号与 post_id 同序，二分定位第一条 post_id > afterPostId
+            int low = 0;
+            int high = ordinals.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (posts[ordinals[mid]].getPostId() <= afterPostId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            from = low;
+        }
+        int to = (int) Math.min(ordinals.length, (long) from + limit);
+        return select(posts, Arrays.copyOfRange(ordinals, from, to));
+    }
+
+    // ==================== 构建辅助 ====================
+
+    private static int indexOf(long[] sortedIds, Long id) {
+        if (id == null) {
+            return NONE;
+        }
+        int index = Arrays.binarySearch(sortedIds, id);
+        return index >= 0 ? index : NONE;
+    }
+
+    /**
+     * 按父链计算深度；数据中存在环时，环上节点按根部门处理
+     */
+    private static int[] computeDepths(int[] parents) {
+        int[] depths = new int[parents.length];
+        int[] path = new int[parents.length];
+        for (int i = 0; i < parents.length; i++) {
+            int length = 0;
+            int node = i;
+            // 沿父链上溯到已知深度的节点、根部门或环
+            while (node >= 0 && depths[node] == 0) {
+                depths[node] = -1;
+                path[length++] = node;
+                node = parents[node];
+            }
+            int depth = node >= 0 && depths[node] > 0 ? depths[node] : 0;
+            for (int j = length - 1; j >= 0; j--) {
+                depths[path[j]] = ++depth;
+            }
+        }
+        return depths;
+    }
+
+    private static List<List<Integer>> groups(int size) {
+        List<List<Integer>> groups = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            groups.add(new ArrayList<>());
+        }
+        return groups;
+    }
+
+    private static int[][] toArrays(List<List<Integer>> groups) {
+        int[][] arrays = new int[groups.size()][];
+        for (int i = 0; i < arrays.length; i++) {
+            List<Integer> group = groups.get(i);
+            arrays[i] = group.isEmpty() ? EMPTY : group.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return arrays;
+    }
+
+    private static <T> List<T> select(T[] items, int[] ordinals) {
+        List<T> result = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            result.add(items[ordinal]);
+        }
+        return result;
+    }
+
+    // ==================== 内存估算 ====================
+
+    private static final int HEADER = 16;
+    private static final int REF = 4;
+    private static final int BOXED = 16;
+    private static final int DATE_TIME = 72;
+
+    private long estimateBytes() {
+        long bytes = arrayBytes(companyIds.length, 8) + arrayBytes(companies.length, REF)
+                + arrayBytes(departmentIds.length, 8) + arrayBytes(departments.length, REF)
+                + arrayBytes(parents.length, 4) + arrayBytes(depths.length, 4)
+                + arrayBytes(posts.length, REF)
+                + nestedBytes(children) + nestedBytes(departmentsByCompany) + nestedBytes(postsByCompany);
+        for (SysCompany company : companies) {
+            if (company != null) {
+                bytes += HEADER + 12 * REF + 2 * BOXED + 2 * DATE_TIME
+                        + stringBytes(company.getCompanyName()) + stringBytes(company.getCountry())
+                        + stringBytes(company.getProvince()) + stringBytes(company.getCity())
+                        + stringBytes(company.getAddress()) + stringBytes(company.getLinkMan())
+                        + stringBytes(company.getPhone()) + stringBytes(company.getCompanyCode());
+            }
+        }
+        for (SysDepartment department : departments) {
+            bytes += HEADER + 7 * REF + 4 * BOXED + 2 * DATE_TIME + stringBytes(department.getDepartmentName());
+        }
+        for (SysPost post : posts) {
+            bytes += HEADER + 4 * REF + 2 * BOXED
+                    + stringBytes(post.getPostName()) + stringBytes(post.getDescription());
+        }
+        return bytes;
+    }
+
+    private static long arrayBytes(int length, int elementBytes) {
+        return HEADER + (long) length * elementBytes;
+    }
+
+    private static long nestedBytes(int[][] arrays) {
+        long bytes = arrayBytes(arrays.length, REF);
+        for (int[] array : arrays) {
+            if (array != EMPTY) {
+                bytes += arrayBytes(array.length, 4);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * String 对象 + byte[]（含中文按 UTF-16 两字节计）
+     */
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 24 + arrayBytes(value.length(), 2);
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.cache.CacheRegion;
+import org.example.cache.InvalidationBus;
+import org.example.cache.InvalidationListener;
+import org.example.entity.SysCompany;
+import org.example.entity.SysDepartment;
+import org.example.entity.SysPost;
+import org.example.repository.CompanyRepository;
+import org.example.repository.DepartmentRepository;
+import org.example.repository.PostRepository;
+import org.example.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * 组织结构快照服务
+ * <p>
+ * 组织结构每天只变更几次，却每分钟被读取数千次。读接口从内存中的不可变快照获取数据，不访问数据库；
+ * 公司、部门、岗位写操作在事务提交后调用 {@link #refresh()}，重新加载并原子替换快照。
+ * <p>
+ * 快照首次访问时加载；重建失败时丢弃当前快照，下次访问重新加载，避免长期读到旧数据。
+ */
+@Service
+public class OrgSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrgSnapshotService.class);
+
+    private final CompanyRepository companyRepository;
+    private final DepartmentRepository departmentRepository;
+    private final PostRepository postRepository;
+    private final InvalidationBus invalidationBus;
+
+    private final Object buildLock = new Object();
+
+    private volatile OrgSnapshot snapshot;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final Timer buildTimer;
+
+    public OrgSnapshotService(CompanyRepository companyRepository,
+                              DepartmentRepository departmentRepository,
+                              PostRepository postRepository,
+                              InvalidationBus invalidationBus,
+                              MeterRegistry meterRegistry) {
+        this.companyRepository = companyRepository;
+        this.departmentRepository = departmentRepository;
+        this.postRepository = postRepository;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(CacheRegion.ORG, new InvalidationListener() {
+            @Override
+            public void evict(List<String> keys) {
+                discard();
+            }
+
+            @Override
+            public void evictAll() {
+                discard();
+            }
+        });
+
+        this.buildTimer = Timer.builder("wms.org.snapshot.build")
+                .description("组织结构快照重建耗时（含数据库加载）")
+                .register(meterRegistry);
+        Gauge.builder("wms.org.snapshot.bytes", this, s -> s.statOf(OrgSnapshot::getEstimatedBytes))
+                .description("组织结构快照估算内存占用")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("wms.org.snapshot.version", this, s -> s.statOf(OrgSnapshot::getVersion))
+                .description("组织结构快照版本")
+                .register(meterRegistry);
+        Gauge.builder("wms.org.snapshot.departments", this, s -> s.statOf(OrgSnapshot::getDepartmentCount))
+                .description("组织结构快照中的部门数")
+                .register(meterRegistry);
+        Gauge.builder("wms.org.snapshot.posts", this, s -> s.statOf(OrgSnapshot::getPostCount))
+                .description("组织结构快照中的岗位数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 当前快照，未加载时同步加载
+     */
+    public OrgSnapshot getSnapshot() {
+        OrgSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (buildLock) {
+            if (snapshot == null) {
+                snapshot = load();
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * 组织结构变更后重建快照（事务提交后执行），其他节点丢弃快照、下次访问时重新加载
+     */
+    public void refresh() {
+        TransactionUtil.afterCommit(() -> {
+            synchronized (buildLock) {
+                try {
+                    snapshot = load();
+                } catch (Exception e) {
+                    snapshot = null;
+                    log.error("组织结构快照重建失败，下次访问时重新加载: {}", e.getMessage(), e);
+                }
+            }
+        });
+        invalidationBus.publish(CacheRegion.ORG);
+    }
+
+    private void discard() {
+        synchronized (buildLock) {
+            snapshot = null;
+        }
+        log.debug("组织结构快照已丢弃，下次访问时重新加载");
+    }
+
+    private OrgSnapshot load() {
+        long start = System.nanoTime();
+        List<SysCompany> companies = companyRepository.findActiveCompanies();
+        List<SysDepartment> departments = departmentRepository.findAll();
+        List<SysPost> posts = postRepository.list();
+        long loaded = System.nanoTime();
+
+        OrgSnapshot next = OrgSnapshot.build(version.incrementAndGet(), companies, departments, posts);
+        long built = System.nanoTime();
+        buildTimer.record(built - start, TimeUnit.NANOSECONDS);
+
+        log.info("组织结构快照已构建: version={}, companies={}, departments={}, posts={}, "
+                        + "estimatedBytes={}, loadMs={}, buildMs={}",
+                next.getVersion(), next.getCompanyCount(), next.getDepartmentCount(), next.getPostCount(),
+                next.getEstimatedBytes(), TimeUnit.NANOSECONDS.toMillis(loaded - start),
+                TimeUnit.NANOSECONDS.toMillis(built - loaded));
+        return next;
+    }
+
+    private double statOf(ToLongFunction<OrgSnapshot> stat) {
+        OrgSnapshot current = snapshot;
+        return current != null ? stat.applyAsLong(current) : 0;
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.example.util.PasswordUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 密码哈希执行器
+ * <p>
+ * BCrypt 为 CPU 密集型计算（单次约 100ms），放在独立的定长线程池中执行，
+ * 避免登录高峰占满 Tomcat 工作线程。队列有界，饱和时立即抛出
+ * {@link RejectedExecutionException}，由调用方返回 503，而不是让请求无限排队。
+ * <p>
+ * 计算成本可按部署环境配置；已存储哈希的成本与配置不同时，登录成功后在后台重新加密。
+ * 耗时指标按成本打标签，可据此对比不同成本下的登录吞吐。
+ */
+@Service
+public class PasswordHasher {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * BCrypt 计算成本
+     */
+    private final int cost;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer hashTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHasher(MeterRegistry meterRegistry,
+                          @Value("${wms.password.hash.threads:0}") int threads,
+                          @Value("${wms.password.hash.queue-capacity:64}") int queueCapacity,
+                          @Value("${wms.password.hash.cost:10}") int cost) {
+        if (cost < PasswordUtil.MIN_COST || cost > PasswordUtil.MAX_COST) {
+            throw new IllegalArgumentException("wms.password.hash.cost 须在 "
+                    + PasswordUtil.MIN_COST + "~" + PasswordUtil.MAX_COST + " 之间: " + cost);
+        }
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.cost = cost;
+        this.meterRegistry = meterRegistry;
+        this.hashTimer = hashTimer(meterRegistry, "hash", cost);
+        this.rejectedCounter = Counter.builder("wms.password.hash.rejected")
+                .description("线程池饱和被拒绝的密码哈希任务数")
+                .register(meterRegistry);
+        Gauge.builder("wms.password.hash.queue", executor, e -> e.getQueue().size())
+                .description("等待执行的密码哈希任务数")
+                .register(meterRegistry);
+        Gauge.builder("wms.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在执行的密码哈希任务数")
+                .register(meterRegistry);
+
+        log.info("密码哈希线程池: threads={}, queueCapacity={}, cost={}", poolSize, queueCapacity, cost);
+    }
+
+    /**
+     * 异步加密密码
+     *
+     * @throws RejectedExecutionException 线程池饱和
+     */
+    public CompletableFuture<String> hashAsync(String plainPassword) {
+        return submit(hashTimer, () -> PasswordUtil.hashPassword(plainPassword, cost));
+    }
+
+    /**
+     * 异步验证密码
+     *
+     * @throws RejectedExecutionException 线程池饱和
+     */
+    public CompletableFuture<Boolean> verifyAsync(String plainPassword, String hashedPassword) {
+        Timer timer = hashTimer(meterRegistry, "verify", PasswordUtil.getCost(hashedPassword));
+        return submit(timer, () -> PasswordUtil.verifyPassword(plainPassword, hashedPassword));
+    }
+
+    /**
+     * 已存储的哈希是否需要按当前成本重新加密
+     */
+    public boolean needsRehash(String hashedPassword) {
+        return PasswordUtil.getCost(hashedPassword) != cost;
+    }
+
+    /**
+     * 加密密码（在哈希线程池中执行，调用线程等待结果）
+     *
+     * @throws RejectedExecutionException 线程池饱和
+     */
+    public String hash(String plainPassword) {
+        try {
+            return hashAsync(plainPassword).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> timer.record(task), executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("密码哈希线程池已满，拒绝请求: queue={}", executor.getQueue().size());
+            throw e;
+        }
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation, int cost) {
+        return Timer.builder("wms.password.hash")
+                .description("密码哈希耗时")
+                .tag("operation", operation)
+                .tag("cost", String.valueOf(cost))
+                .register(meterRegistry);
+    }
+}
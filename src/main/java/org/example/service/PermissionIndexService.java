@@ -0,0 +1,478 @@
+package org.example.service;
+
+import org.example.cache.CacheRegion;
+import org.example.cache.InvalidationBus;
+import org.example.cache.InvalidationListener;
+import org.example.entity.SysMenu;
+import org.example.entity.SysPostMenu;
+import org.example.entity.SysUserPost;
+import org.example.repository.MenuRepository;
+import org.example.repository.PostMenuRepository;
+import org.example.repository.UserPostRepository;
+import org.example.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 权限索引服务
+ * 将 sys_post_menu、sys_user_post 和 sys_menu.menu_code 加载到内存，
+ * 权限校验热路径不再访问数据库
+ * <p>
+ * 每个菜单分配一个稠密序号（ordinal），用户的有效权限缓存为以序号为下标的 byte 数组，
+ * 命中后权限判断只需一次数组访问。缓存条目携带全局权限纪元（epoch），纪元变化后自动失效。
+ * <p>
+ * 读操作无锁；写操作（重建、增量刷新）串行执行，并在事务提交后生效。
+ * 变更同时通过 {@link InvalidationBus} 通知其他节点，其他节点按岗位/用户精确刷新，菜单变更时全量重建
+ */
+@Service
+public class PermissionIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(PermissionIndexService.class);
+
+    private static final long[] NO_POSTS = new long[0];
+
+    /**
+     * 失效事件键前缀
+     */
+    private static final String POST_KEY = "post:";
+    private static final String USER_KEY = "user:";
+    private static final String MENU_KEY = "menu:";
+
+    private final MenuRepository menuRepository;
+    private final PostMenuRepository postMenuRepository;
+    private final UserPostRepository userPostRepository;
+    private final InvalidationBus invalidationBus;
+
+    private final Object writeLock = new Object();
+
+    /**
+     * 当前索引，首次访问时加载
+     */
+    private volatile Index index;
+
+    /**
+     * 全局权限纪元，菜单增删或全量重建时递增
+     */
+    private final AtomicLong epoch = new AtomicLong();
+
+    /**
+     * userId -> 用户有效权限
+     */
+    private final Map<String, UserPerms> userPermsCache = new ConcurrentHashMap<>();
+
+    public PermissionIndexService(MenuRepository menuRepository,
+                                  PostMenuRepository postMenuRepository,
+                                  UserPostRepository userPostRepository,
+                                  InvalidationBus invalidationBus) {
+        this.menuRepository = menuRepository;
+        this.postMenuRepository = postMenuRepository;
+        this.userPostRepository = userPostRepository;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(CacheRegion.PERMISSION, new InvalidationListener() {
+            @Override
+            public void evict(List<String> keys) {
+                onRemoteInvalidation(keys);
+            }
+
+            @Override
+            public void evictAll() {
+                discard();
+            }
+        });
+    }
+
+    /**
+     * 查询用户对某菜单代码的最高权限类型
+     */
+    public Integer findUserPermTypeByCode(String userId, String menuCode) {
+        long currentEpoch = epoch.get();
+        Index current = getIndex();
+        Integer ordinal = current.ordinalByCode.get(menuCode);
+        if (ordinal == null) {
+            return null;
+        }
+        return getUserPerms(current, currentEpoch, userId).get(ordinal);
+    }
+
+    /**
+     * 查询用户对某菜单的最高权限类型
+     */
+    public Integer findUserPermType(String userId, Long menuId) {
+        long currentEpoch = epoch.get();
+        Index current = getIndex();
+        Integer ordinal = current.ordinalByMenuId.get(menuId);
+        if (ordinal == null) {
+            return null;
+        }
+        return getUserPerms(current, currentEpoch, userId).get(ordinal);
+    }
+
+    /**
+     * 获取用户的岗位ID（升序）
+     */
+    public long[] getUserPostIds(String userId) {
+        return getIndex().postsByUser.getOrDefault(userId, NO_POSTS);
+    }
+
+    /**
+     * 当前权限纪元
+     */
+    public long getEpoch() {
+        return epoch.get();
+    }
+
+    /**
+     * 岗位权限变更后刷新该岗位，并失效持有该岗位的用户（事务提交后执行）
+     */
+    public void refreshPost(Long postId) {
+        TransactionUtil.afterCommit(() -> reloadPost(postId));
+        invalidationBus.publish(CacheRegion.PERMISSION, POST_KEY + postId);
+    }
+
+    /**
+     * 用户岗位变更后刷新该用户（事务提交后执行）
+     */
+    public void refreshUser(String userId) {
+        TransactionUtil.afterCommit(() -> reloadUser(userId));
+        invalidationBus.publish(CacheRegion.PERMISSION, USER_KEY + userId);
+    }
+
+    /**
+     * 新增菜单后登记菜单代码（事务提交后执行）
+     * 新菜单尚无岗位授权，已缓存的用户权限数组越界读取即视为无权限，无需失效
+     */
+    public void putMenu(Long menuId, String menuCode) {
+        TransactionUtil.afterCommit(() -> {
+            synchronized (writeLock) {
+                Index current = index;
+                if (current != null) {
+                    int ordinal = current.ordinalByMenuId.computeIfAbsent(menuId,
+                            id -> current.nextOrdinal.getAndIncrement());
+                    current.ordinalByCode.put(menuCode, ordinal);
+                }
+            }
+        });
+        invalidationBus.publish(CacheRegion.PERMISSION, MENU_KEY + menuId);
+    }
+
+    /**
+     * 删除菜单后移除菜单代码及其权限关联（事务提交后执行）
+     */
+    public void removeMenu(Long menuId) {
+        TransactionUtil.afterCommit(() -> {
+            synchronized (writeLock) {
+                Index current = index;
+                if (current == null) {
+                    return;
+                }
+                Integer ordinal = current.ordinalByMenuId.remove(menuId);
+                if (ordinal == null) {
+                    return;
+                }
+                current.ordinalByCode.values().removeIf(ordinal::equals);
+                current.permsByPost.replaceAll((postId, perms) -> perms.without(ordinal));
+                current.permsByPost.values().removeIf(PostPerms::isEmpty);
+                bumpEpoch();
+            }
+        });
+        invalidationBus.publish(CacheRegion.PERMISSION, MENU_KEY + menuId);
+    }
+
+    /**
+     * 删除岗位后移除其权限（事务提交后执行）
+     */
+    public void removePost(Long postId) {
+        TransactionUtil.afterCommit(() -> {
+            synchronized (writeLock) {
+                Index current = index;
+                if (current != null) {
+                    current.permsByPost.remove(postId);
+                    evictUsersHoldingPost(current, postId);
+                }
+            }
+        });
+        invalidationBus.publish(CacheRegion.PERMISSION, POST_KEY + postId);
+    }
+
+    /**
+     * 从数据库全量重建索引
+     */
+    public void rebuild() {
+        synchronized (writeLock) {
+            long start = System.currentTimeMillis();
+
+            Map<String, Integer> ordinalByCode = new ConcurrentHashMap<>();
+            Map<Long, Integer> ordinalByMenuId = new ConcurrentHashMap<>();
+            AtomicInteger nextOrdinal = new AtomicInteger();
+            for (SysMenu menu : menuRepository.findAllCodes()) {
+                int ordinal = nextOrdinal.getAndIncrement();
+                ordinalByMenuId.put(menu.getMenuId(), ordinal);
+                ordinalByCode.put(menu.getMenuCode(), ordinal);
+            }
+
+            Map<Long, PostPerms> permsByPost = new ConcurrentHashMap<>();
+            postMenuRepository.findAll().stream()
+                    .collect(Collectors.groupingBy(SysPostMenu::getPostId))
+                    .forEach((postId, rows) -> permsByPost.put(postId, PostPerms.of(rows, ordinalByMenuId)));
+
+            Map<String, long[]> postsByUser = new ConcurrentHashMap<>();
+            userPostRepository.list().stream()
+                    .collect(Collectors.groupingBy(SysUserPost::getUserId))
+                    .forEach((userId, rows) -> postsByUser.put(userId, rows.stream()
+                            .mapToLong(SysUserPost::getPostId)
+                            .distinct()
+                            .sorted()
+                            .toArray()));
+
+            index = new Index(ordinalByCode, ordinalByMenuId, nextOrdinal, permsByPost, postsByUser);
+            bumpEpoch();
+            log.info("权限索引重建完成: menus={}, posts={}, users={}, 耗时={}ms",
+                    ordinalByMenuId.size(), permsByPost.size(), postsByUser.size(),
+                    System.currentTimeMillis() - start);
+        }
+    }
+
+    private Index getIndex() {
+        Index current = index;
+        if (current == null) {
+            synchronized (writeLock) {
+                if (index == null) {
+                    rebuild();
+                }
+                current = index;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 获取用户有效权限，未命中或纪元过期时重新计算
+     * 计算在 ConcurrentHashMap 的桶锁内完成，与失效操作互斥，不会写回过期结果。
+     * 调用方须在取得索引之前读取纪元：索引在两者之间被替换时，结果以旧纪元缓存，下次读取即重新计算
+     */
+    private UserPerms getUserPerms(Index current, long currentEpoch, String userId) {
+        UserPerms perms = userPermsCache.get(userId);
+        if (perms != null && perms.epoch == currentEpoch) {
+            return perms;
+        }
+        return userPermsCache.compute(userId, (id, cached) ->
+                cached != null && cached.epoch == currentEpoch ? cached : UserPerms.of(current, id, currentEpoch));
+    }
+
+    /**
+     * 从数据库重新加载岗位权限，并失效持有该岗位的用户
+     */
+    private void reloadPost(Long postId) {
+        synchronized (writeLock) {
+            Index current = index;
+            if (current == null) {
+                return;
+            }
+            PostPerms perms = PostPerms.of(postMenuRepository.findByPostId(postId), current.ordinalByMenuId);
+            if (perms.isEmpty()) {
+                current.permsByPost.remove(postId);
+            } else {
+                current.permsByPost.put(postId, perms);
+            }
+            int evicted = evictUsersHoldingPost(current, postId);
+            log.debug("权限索引刷新岗位: postId={}, menus={}, evictedUsers={}",
+                    postId, perms.ordinals.length, evicted);
+        }
+    }
+
+    /**
+     * 从数据库重新加载用户岗位
+     */
+    private void reloadUser(String userId) {
+        synchronized (writeLock) {
+            Index current = index;
+            if (current == null) {
+                return;
+            }
+            long[] postIds = userPostRepository.findByUserId(userId).stream()
+                    .mapToLong(SysUserPost::getPostId)
+                    .distinct()
+                    .sorted()
+                    .toArray();
+            if (postIds.length == 0) {
+                current.postsByUser.remove(userId);
+            } else {
+                current.postsByUser.put(userId, postIds);
+            }
+            userPermsCache.remove(userId);
+            log.debug("权限索引刷新用户: userId={}, posts={}", userId, postIds.length);
+        }
+    }
+
+    /**
+     * 丢弃索引，下次访问时全量重建
+     */
+    private void discard() {
+        synchronized (writeLock) {
+            index = null;
+            bumpEpoch();
+        }
+        log.info("权限索引已丢弃，下次访问时重建");
+    }
+
+    /**
+     * 其他节点的权限变更：岗位、用户精确刷新，菜单变更全量重建
+     */
+    private void onRemoteInvalidation(List<String> keys) {
+        for (String key : keys) {
+            if (key.startsWith(POST_KEY)) {
+                reloadPost(Long.valueOf(key.substring(POST_KEY.length())));
+            } else if (key.startsWith(USER_KEY)) {
+                reloadUser(key.substring(USER_KEY.length()));
+            } else {
+                discard();
+                return;
+            }
+        }
+    }
+
+    private int evictUsersHoldingPost(Index current, Long postId) {
+        int evicted = 0;
+        for (Map.Entry<String, long[]> entry : current.postsByUser.entrySet()) {
+            if (Arrays.binarySearch(entry.getValue(), postId) >= 0
+                    && userPermsCache.remove(entry.getKey()) != null) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    private void bumpEpoch() {
+        epoch.incrementAndGet();
+        userPermsCache.clear();
+    }
+
+    /**
+     * 索引数据
+     */
+    private static final class Index {
+        /**
+         * menuCode -> 菜单序号
+         */
+        final Map<String, Integer> ordinalByCode;
+        /**
+         * menuId -> 菜单序号
+         */
+        final Map<Long, Integer> ordinalByMenuId;
+        /**
+         * 下一个可分配的菜单序号（删除菜单后序号不复用）
+         */
+        final AtomicInteger nextOrdinal;
+        /**
+         * postId -> 岗位菜单权限
+         */
+        final Map<Long, PostPerms> permsByPost;
+        /**
+         * userId -> 岗位ID（升序）
+         */
+        final Map<String, long[]> postsByUser;
+
+        Index(Map<String, Integer> ordinalByCode, Map<Long, Integer> ordinalByMenuId, AtomicInteger nextOrdinal,
+              Map<Long, PostPerms> permsByPost, Map<String, long[]> postsByUser) {
+            this.ordinalByCode = ordinalByCode;
+            this.ordinalByMenuId = ordinalByMenuId;
+            this.nextOrdinal = nextOrdinal;
+            this.permsByPost = permsByPost;
+            this.postsByUser = postsByUser;
+        }
+    }
+
+    /**
+     * 单个岗位的菜单权限（不可变）
+     * ordinals 升序排列，permTypes 与之一一对应
+     */
+    private static final class PostPerms {
+        final int[] ordinals;
+        final byte[] permTypes;
+
+        PostPerms(int[] ordinals, byte[] permTypes) {
+            this.ordinals = ordinals;
+            this.permTypes = permTypes;
+        }
+
+        static PostPerms of(List<SysPostMenu> rows, Map<Long, Integer> ordinalByMenuId) {
+            Map<Integer, Integer> byOrdinal = new TreeMap<>();
+            for (SysPostMenu pm : rows) {
+                Integer ordinal = ordinalByMenuId.get(pm.getMenuId());
+                if (ordinal != null && pm.getPermType() != null) {
+                    byOrdinal.merge(ordinal, pm.getPermType(), Math::max);
+                }
+            }
+            int[] ordinals = new int[byOrdinal.size()];
+            byte[] permTypes = new byte[byOrdinal.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Integer> entry : byOrdinal.entrySet()) {
+                ordinals[i] = entry.getKey();
+                permTypes[i] = entry.getValue().byteValue();
+                i++;
+            }
+            return new PostPerms(ordinals, permTypes);
+        }
+
+        PostPerms without(int ordinal) {
+            int i = Arrays.binarySearch(ordinals, ordinal);
+            if (i < 0) {
+                return this;
+            }
+            int[] ords = new int[ordinals.length - 1];
+            byte[] types = new byte[permTypes.length - 1];
+            System.arraycopy(ordinals, 0, ords, 0, i);
+            System.arraycopy(ordinals, i + 1, ords, i, ords.length - i);
+            System.arraycopy(permTypes, 0, types, 0, i);
+            System.arraycopy(permTypes, i + 1, types, i, types.length - i);
+            return new PostPerms(ords, types);
+        }
+
+        boolean isEmpty() {
+            return ordinals.length == 0;
+        }
+    }
+
+    /**
+     * 用户有效权限（不可变）
+     * 以菜单序号为下标，值为该用户在所有岗位上的最高权限类型，0 表示无权限
+     */
+    private static final class UserPerms {
+        final long epoch;
+        final byte[] permTypes;
+
+        UserPerms(long epoch, byte[] permTypes) {
+            this.epoch = epoch;
+            this.permTypes = permTypes;
+        }
+
+        static UserPerms of(Index index, String userId, long epoch) {
+            byte[] permTypes = new byte[index.nextOrdinal.get()];
+            for (long postId : index.postsByUser.getOrDefault(userId, NO_POSTS)) {
+                PostPerms perms = index.permsByPost.get(postId);
+                if (perms == null) {
+                    continue;
+                }
+                for (int i = 0; i < perms.ordinals.length; i++) {
+                    int ordinal = perms.ordinals[i];
+                    if (ordinal < permTypes.length && perms.permTypes[i] > permTypes[ordinal]) {
+                        permTypes[ordinal] = perms.permTypes[i];
+                    }
+                }
+            }
+            return new UserPerms(epoch, permTypes);
+        }
+
+        Integer get(int ordinal) {
+            int permType = ordinal < permTypes.length ? permTypes[ordinal] : 0;
+            return permType > 0 ? permType : null;
+        }
+    }
+}
@@ -1,13 +1,14 @@
 package org.example.service;
 
 import org.example.dto.AssignPostRequest;
+import org.example.dto.AssignResult;
 import org.example.dto.CreatePostRequest;
 import org.example.dto.PostResponse;
-import org.example.entity.SysDepartment;
 import org.example.entity.SysPost;
 import org.example.repository.DepartmentRepository;
 import org.example.repository.PostRepository;
 import org.example.repository.UserPostRepository;
+import org.example.util.Enricher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,13 +21,27 @@ public class PostService {
     private final PostRepository postRepository;
     private final UserPostRepository userPostRepository;
     private final DepartmentRepository departmentRepository;
+    private final PermissionIndexService permissionIndexService;
+    private final OrgSnapshotService orgSnapshotService;
+
+    /**
+     * 批量填充部门名称
+     */
+    private final Enricher<PostResponse, Long, String> departmentNameEnricher;
 
     public PostService(PostRepository postRepository,
                        UserPostRepository userPostRepository,
-                       DepartmentRepository departmentRepository) {
+                       DepartmentRepository departmentRepository,
+                       PermissionIndexService permissionIndexService,
+                       OrgSnapshotService orgSnapshotService) {
         this.postRepository = postRepository;
         this.userPostRepository = userPostRepository;
         this.departmentRepository = departmentRepository;
+        this.permissionIndexService = permissionIndexService;
+        this.orgSnapshotService = orgSnapshotService;
+        this.departmentNameEnricher = new Enricher<>(PostResponse::getDepartmentId,
+                departmentRepository::findNamesByIds,
+                PostResponse::setDepartmentName);
     }
 
     @Transactional
@@ -42,6 +57,7 @@ public class PostService {
         post.setDescription(request.getDescription());
 
         postRepository.save(post);
+        orgSnapshotService.refresh();
         return getPostById(post.getPostId());
     }
 
@@ -50,37 +66,60 @@ public class PostService {
         if (post == null) {
             return null;
         }
-        return convertToResponse(post);
+        return departmentNameEnricher.enrich(convertToResponse(post));
     }
 
     public List<PostResponse> getPostsByDepartmentId(Long departmentId) {
         List<SysPost> posts = postRepository.findByDepartmentId(departmentId);
-        return posts.stream().map(this::convertToResponse).collect(Collectors.toList());
+        return toResponses(posts);
     }
 
     public List<PostResponse> getAllPosts() {
         List<SysPost> posts = postRepository.list();
-        return posts.stream().map(this::convertToResponse).collect(Collectors.toList());
+        return toResponses(posts);
     }
 
+    /**
+     * 为用户分配岗位（差量覆盖）
+     *
+     * @return 实际发生变化的岗位
+     */
     @Transactional
-    public void assignPostsToUser(AssignPostRequest request) {
+    public AssignResult assignPostsToUser(AssignPostRequest request) {
         // 验证用户是否存在
         if (!userPostRepository.userExists(request.getUserId())) {
             throw new RuntimeException("用户不存在或已删除");
         }
 
-        userPostRepository.assignPostsToUser(request.getUserId(), request.getPostIds());
+        AssignResult result = userPostRepository.assignPostsToUser(request.getUserId(), request.getPostIds());
+        if (result.hasChanges()) {
+            permissionIndexService.refreshUser(request.getUserId());
+        }
+        return result;
     }
 
     public List<PostResponse> getPostsByUserId(String userId) {
         List<SysPost> posts = postRepository.findByUserId(userId);
-        return posts.stream().map(this::convertToResponse).collect(Collectors.toList());
+        return toResponses(posts);
     }
 
+    /**
+     * 获取公司岗位（读组织结构快照）
+     */
     public List<PostResponse> getPostsByCompanyId(Long companyId) {
-        List<SysPost> posts = postRepository.findByCompanyId(companyId);
-        return posts.stream().map(this::convertToResponse).collect(Collectors.toList());
+        OrgSnapshot snapshot = orgSnapshotService.getSnapshot();
+        return toResponses(snapshot, snapshot.getPostsByCompany(companyId));
+    }
+
+    /**
+     * 游标分页获取公司岗位（读组织结构快照）
+     *
+     * @param afterPostId 上一页最后一条的岗位ID，为 null 时获取第一页
+     * @param limit       每页条数
+     */
+    public List<PostResponse> getPostsByCompanyId(Long companyId, Long afterPostId, int limit) {
+        OrgSnapshot snapshot = orgSnapshotService.getSnapshot();
+        return toResponses(snapshot, snapshot.getPostsByCompany(companyId, afterPostId, limit));
     }
 
     @Transactional
@@ -91,23 +130,46 @@ public class PostService {
             throw new RuntimeException("该岗位下存在用户，无法删除");
         }
 
-        return postRepository.removeById(postId);
+        boolean removed = postRepository.removeById(postId);
+        if (removed) {
+            permissionIndexService.removePost(postId);
+            orgSnapshotService.refresh();
+        }
+        return removed;
     }
 
+    /**
+     * 批量转换为响应DTO，部门名称一次批量查询
+     */
+    private List<PostResponse> toResponses(List<SysPost> posts) {
+        List<PostResponse> responses = posts.stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+        return departmentNameEnricher.enrich(responses);
+    }
+
+    /**
+     * 批量转换为响应DTO，部门名称取自快照
+     */
+    private List<PostResponse> toResponses(OrgSnapshot snapshot, List<SysPost> posts) {
+        return posts.stream()
+                .map(post -> {
+                    PostResponse response = convertToResponse(post);
+                    response.setDepartmentName(snapshot.findDepartmentName(post.getDepartmentId()));
+                    return response;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 转换为响应DTO（不含部门名称）
+     */
     private PostResponse convertToResponse(SysPost post) {
         PostResponse response = new PostResponse();
         response.setPostId(post.getPostId());
         response.setPostName(post.getPostName());
         response.setDepartmentId(post.getDepartmentId());
         response.setDescription(post.getDescription());
-
-        // 获取部门名称
-        if (post.getDepartmentId() != null) {
-            SysDepartment department = departmentRepository.findById(post.getDepartmentId());
-            if (department != null) {
-                response.setDepartmentName(department.getDepartmentName());
-            }
-        }
         return response;
     }
 }
@@ -1,12 +1,20 @@
 package org.example.service;
 
+import org.redisson.api.RBatch;
 import org.redisson.api.RBucket;
 import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.BaseStatusListener;
+import org.redisson.client.codec.StringCodec;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Redis服务类 - 封装Token黑名单管理所需的Redis操作
@@ -33,4 +41,90 @@ public class RedisService {
     public boolean hasKey(String key) {
         return redissonClient.getBucket(key).isExists();
     }
+
+    /**
+     * 批量获取值（MGET，一次网络往返）
+     *
+     * @return key -> value，不存在的key不包含在结果中
+     */
+    public Map<String, Object> multiGet(Collection<String> keys) {
+        return redissonClient.getBuckets().get(keys.toArray(new String[0]));
+    }
+
+    /**
+     * 异步设置字符串值（带过期时间）
+     */
+    public CompletionStage<Void> setAsync(String key, Object value, long timeout, TimeUnit timeUnit) {
+        RBucket<Object> bucket = redissonClient.getBucket(key);
+        return bucket.setAsync(value, Duration.ofMillis(timeUnit.toMillis(timeout)));
+    }
+
+    /**
+     * 异步判断key是否存在，不占用调用线程等待网络往返
+     */
+    public CompletionStage<Boolean> hasKeyAsync(String key) {
+        return redissonClient.getBucket(key).isExistsAsync();
+    }
+
+    /**
+     * 批量判断key是否存在（RBatch 管道，一次网络往返）
+     *
+     * @return 与 keys 顺序一致的结果
+     */
+    @SuppressWarnings("unchecked")
+    public CompletionStage<List<Boolean>> hasKeysAsync(List<String> keys) {
+        RBatch batch = redissonClient.createBatch();
+        for (String key : keys) {
+            batch.getBucket(key).isExistsAsync();
+        }
+        return batch.executeAsync().thenApply(result -> (List<Boolean>) result.getResponses());
+    }
+
+    /**
+     * 按模式遍历key（SCAN，不阻塞Redis）
+     */
+    public Iterable<String> scanKeys(String pattern) {
+        return redissonClient.getKeys().getKeysByPattern(pattern, 1000);
+    }
+
+    /**
+     * 发布字符串消息
+     */
+    public void publish(String topic, String message) {
+        redissonClient.getTopic(topic, StringCodec.INSTANCE).publish(message);
+    }
+
+    /**
+     * 订阅字符串消息
+     */
+    public void subscribe(String topic, Consumer<String> listener) {
+        redissonClient.getTopic(topic, StringCodec.INSTANCE)
+                .addListener(String.class, (channel, message) -> listener.accept(message));
+    }
+
+    /**
+     * 监听主题订阅状态，连接断开后重新订阅成功时回调（断开期间发布的消息已丢失）
+     */
+    public void onSubscribed(String topic, Runnable callback) {
+        redissonClient.getTopic(topic, StringCodec.INSTANCE).addListener(new BaseStatusListener() {
+            @Override
+            public void onSubscribe(String channel) {
+                callback.run();
+            }
+        });
+    }
+
+    /**
+     * 计数器加一并返回新值
+     */
+    public long increment(String key) {
+        return redissonClient.getAtomicLong(key).incrementAndGet();
+    }
+
+    /**
+     * 读取计数器，不存在时为 0
+     */
+    public long getCounter(String key) {
+        return redissonClient.getAtomicLong(key).get();
+    }
 }
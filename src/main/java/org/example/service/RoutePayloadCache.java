@@ -0,0 +1,147 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.cache.CacheRegion;
+import org.example.cache.InvalidationBus;
+import org.example.cache.InvalidationListener;
+import org.example.dto.RawJson;
+import org.example.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 用户菜单树 / 动态路由响应缓存
+ * <p>
+ * 菜单树和路由只取决于用户持有的岗位集合，岗位集合相同的用户响应完全一致。
+ * 缓存以「类型 + 菜单权限版本 + 升序岗位ID」为键，值为预序列化的 JSON，
+ * 命中时既不构建树也不经过 Jackson 序列化。
+ * <p>
+ * 菜单或岗位权限变更后版本递增，旧条目全部失效
+ */
+@Service
+public class RoutePayloadCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutePayloadCache.class);
+
+    /**
+     * 最大条目数，超过后按 W-TinyLFU 淘汰不常用的岗位组合（正常情况下岗位组合数远小于该值）
+     */
+    private static final int MAX_ENTRIES = 10_000;
+
+    public enum Kind {
+        /**
+         * 用户菜单树
+         */
+        TREE,
+        /**
+         * 用户动态路由
+         */
+        ROUTES
+    }
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache<Key, RawJson> cache = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .build();
+
+    /**
+     * 菜单权限版本
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    private final InvalidationBus invalidationBus;
+
+    public RoutePayloadCache(ObjectMapper objectMapper, InvalidationBus invalidationBus) {
+        this.objectMapper = objectMapper;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(CacheRegion.ROUTE, new InvalidationListener() {
+            @Override
+            public void evict(List<String> keys) {
+                clear();
+            }
+
+            @Override
+            public void evictAll() {
+                clear();
+            }
+        });
+    }
+
+    /**
+     * 获取缓存的响应，未命中时构建并序列化
+     * 同一键的并发未命中只构建一次
+     *
+     * @param kind    响应类型
+     * @param postIds 用户岗位ID（升序）
+     * @param loader  构建响应数据
+     */
+    public RawJson get(Kind kind, long[] postIds, Supplier<?> loader) {
+        Key key = new Key(kind, version.get(), postIds);
+        return cache.get(key, k -> serialize(loader.get()));
+    }
+
+    /**
+     * 菜单或权限变更后失效全部缓存（事务提交后执行，并通知其他节点）
+     */
+    public void invalidate() {
+        TransactionUtil.afterCommit(this::clear);
+        invalidationBus.publish(CacheRegion.ROUTE);
+    }
+
+    private void clear() {
+        long newVersion = version.incrementAndGet();
+        cache.invalidateAll();
+        log.debug("路由缓存已失效: version={}", newVersion);
+    }
+
+    private RawJson serialize(Object data) {
+        try {
+            return new RawJson(objectMapper.writeValueAsString(data));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("序列化路由数据失败", e);
+        }
+    }
+
+    /**
+     * 缓存键
+     */
+    private static final class Key {
+        final Kind kind;
+        final long version;
+        final long[] postIds;
+        final int hash;
+
+        Key(Kind kind, long version, long[] postIds) {
+            this.kind = kind;
+            this.version = version;
+            this.postIds = postIds;
+            this.hash = 31 * (31 * kind.hashCode() + Long.hashCode(version)) + Arrays.hashCode(postIds);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return kind == other.kind && version == other.version && Arrays.equals(postIds, other.postIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -1,16 +1,41 @@
 package org.example.service;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.example.cache.CacheRegion;
+import org.example.cache.InvalidationBus;
+import org.example.cache.InvalidationListener;
+import org.example.util.BloomFilter;
+import org.example.util.TokenCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Token黑名单服务类
  * 用于管理已登出的Token，防止被重复使用
+ * <p>
+ * 本地布隆过滤器保存黑名单 Token 摘要：判定"不存在"时直接放行，不访问 Redis；
+ * 只有"可能存在"才查询 Redis 确认。过滤器启动时从 Redis 加载，
+ * 各节点登出时通过 {@link InvalidationBus} 广播摘要保持同步，并定期重建以清除已过期条目。
+ * <p>
+ * 广播是至多一次投递，漏收摘要的节点会放行已登出的 Token。总线按纪元检测漏收（含订阅断开重连），
+ * 检测到时丢弃过滤器（期间全部查询 Redis）并在后台重建。
+ * <p>
+ * Redis Key 为 token:blacklist:{128位摘要}，长度固定。
+ * 旧版本以完整 Token 为 Key（token:blacklist:{token}），开启 legacy-keys 时一并检查，
+ * 旧 Key 最长随 Token 在 7 天内过期，之后即可关闭。
  */
 @Service
 public class TokenBlacklistService {
@@ -19,8 +44,115 @@ public class TokenBlacklistService {
 
     private static final String TOKEN_BLACKLIST_PREFIX = "token:blacklist:";
 
-    @Autowired
-    private RedisService redisService;
+    private final RedisService redisService;
+    private final TokenCodec tokenCodec;
+    private final InvalidationBus invalidationBus;
+
+    private final long expectedInsertions;
+    private final double fpp;
+
+    /**
+     * 是否兼容检查旧格式（完整 Token）Key
+     */
+    private final boolean legacyKeys;
+
+    /**
+     * 当前过滤器，为 null 表示尚未加载成功（全部查询 Redis）
+     */
+    private volatile BloomFilter filter;
+
+    /**
+     * 重建中的过滤器，重建期间收到的广播同时写入
+     */
+    private volatile BloomFilter building;
+
+    /**
+     * 丢弃次数；重建开始后发生过丢弃时，扫描结果可能漏掉丢失的摘要，不启用
+     */
+    private final AtomicLong discards = new AtomicLong();
+
+    private final Counter negativeCounter;
+    private final Counter truePositiveCounter;
+    private final Counter falsePositiveCounter;
+    private final Counter bypassCounter;
+
+    public TokenBlacklistService(RedisService redisService, TokenCodec tokenCodec,
+                                 InvalidationBus invalidationBus, MeterRegistry meterRegistry,
+                                 @Value("${wms.token-blacklist.bloom.expected-insertions:1000000}") long expectedInsertions,
+                                 @Value("${wms.token-blacklist.bloom.fpp:0.01}") double fpp,
+                                 @Value("${wms.token-blacklist.legacy-keys:true}") boolean legacyKeys) {
+        this.redisService = redisService;
+        this.tokenCodec = tokenCodec;
+        this.invalidationBus = invalidationBus;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.legacyKeys = legacyKeys;
+
+        this.negativeCounter = filterCounter(meterRegistry, "negative");
+        this.truePositiveCounter = filterCounter(meterRegistry, "true_positive");
+        this.falsePositiveCounter = filterCounter(meterRegistry, "false_positive");
+        this.bypassCounter = filterCounter(meterRegistry, "bypass");
+        Gauge.builder("wms.token.blacklist.filter.expected.fpp", this,
+                        s -> s.filter != null ? s.filter.expectedFpp() : Double.NaN)
+                .description("按置位比例估算的布隆过滤器误判率")
+                .register(meterRegistry);
+        Gauge.builder("wms.token.blacklist.filter.observed.fpr", this, TokenBlacklistService::observedFpr)
+                .description("实际误判率：误判次数 / 不在黑名单的查询次数")
+                .register(meterRegistry);
+        Gauge.builder("wms.token.blacklist.filter.insertions", this,
+                        s -> s.filter != null ? s.filter.insertions() : 0)
+                .description("布隆过滤器已加入的摘要数")
+                .register(meterRegistry);
+
+        invalidationBus.subscribe(CacheRegion.TOKEN_BLACKLIST, new InvalidationListener() {
+            @Override
+            public void evict(List<String> digests) {
+                digests.forEach(TokenBlacklistService.this::addLocal);
+            }
+
+            @Override
+            public void evictAll() {
+                discardFilter();
+            }
+        });
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuildFilter();
+    }
+
+    /**
+     * 从 Redis 重建布隆过滤器
+     * 黑名单条目随 Token 过期（最长 7 天），定期重建以剔除已过期的摘要
+     */
+    @Scheduled(initialDelayString = "${wms.token-blacklist.bloom.rebuild-interval:PT24H}",
+            fixedDelayString = "${wms.token-blacklist.bloom.rebuild-interval:PT24H}")
+    public synchronized void rebuildFilter() {
+        long discardStamp = discards.get();
+        BloomFilter next = new BloomFilter(expectedInsertions, fpp);
+        building = next;
+        try {
+            long count = 0;
+            for (String key : redisService.scanKeys(TOKEN_BLACKLIST_PREFIX + "*")) {
+                next.put(toDigest(key.substring(TOKEN_BLACKLIST_PREFIX.length())));
+                count++;
+            }
+            if (discards.get() != discardStamp) {
+                log.info("重建期间广播可能丢失，放弃本次结果，等待下一次重建");
+                return;
+            }
+            filter = next;
+            if (count > expectedInsertions) {
+                log.warn("黑名单条数 {} 超过布隆过滤器预期容量 {}，误判率将上升", count, expectedInsertions);
+            }
+            log.info("黑名单布隆过滤器已重建: {} 条", count);
+        } catch (Exception e) {
+            log.error("重建黑名单布隆过滤器失败，沿用旧过滤器: {}", e.getMessage(), e);
+        } finally {
+            building = null;
+        }
+    }
 
     /**
      * 将Token加入黑名单
@@ -35,7 +167,8 @@ public class TokenBlacklistService {
         }
 
         try {
-            String key = TOKEN_BLACKLIST_PREFIX + token;
+            String digest = tokenCodec.digest(token);
+            String key = TOKEN_BLACKLIST_PREFIX + digest;
 
             // 计算Token剩余有效时间（毫秒）
             long currentTime = System.currentTimeMillis();
@@ -51,6 +184,10 @@ public class TokenBlacklistService {
             // 将Token存入Redis，过期时间与Token原本过期时间对齐
             redisService.set(key, "logout", ttl, TimeUnit.MILLISECONDS);
 
+            // 先写 Redis 再广播，其他节点收到摘要时 Redis 中已可查到
+            addLocal(digest);
+            invalidationBus.publish(CacheRegion.TOKEN_BLACKLIST, digest);
+
             log.info("Token已加入黑名单，剩余有效期: {} 秒", ttl / 1000);
 
         } catch (Exception e) {
@@ -65,24 +202,98 @@ public class TokenBlacklistService {
      * @return true表示在黑名单中（已登出），false表示不在黑名单中
      */
     public boolean isBlacklisted(String token) {
+        return isBlacklistedAsync(token).toCompletableFuture().join();
+    }
+
+    /**
+     * 异步检查Token是否在黑名单中
+     * 布隆过滤器判定不存在时立即完成；否则新旧两种 Key 以一次管道请求查询
+     *
+     * @param token Token字符串
+     * @return 完成值为 true 表示在黑名单中；查询失败时为安全起见完成为 true
+     */
+    public CompletionStage<Boolean> isBlacklistedAsync(String token) {
         if (token == null || token.trim().isEmpty()) {
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
         try {
-            String key = TOKEN_BLACKLIST_PREFIX + token;
-            boolean exists = redisService.hasKey(key);
-
-            if (exists) {
-                log.debug("Token在黑名单中，已被登出");
+            String digest = tokenCodec.digest(token);
+            BloomFilter current = filter;
+            if (current != null && !current.mightContain(digest)) {
+                negativeCounter.increment();
+                return CompletableFuture.completedFuture(false);
             }
 
-            return exists;
+            List<String> keys = legacyKeys
+                    ? List.of(TOKEN_BLACKLIST_PREFIX + digest, TOKEN_BLACKLIST_PREFIX + token)
+                    : List.of(TOKEN_BLACKLIST_PREFIX + digest);
+            return redisService.hasKeysAsync(keys)
+                    .thenApply(results -> {
+                        boolean exists = results.contains(Boolean.TRUE);
+                        if (current == null) {
+                            bypassCounter.increment();
+                        } else if (exists) {
+                            truePositiveCounter.increment();
+                        } else {
+                            falsePositiveCounter.increment();
+                        }
+                        if (exists) {
+                            log.debug("Token在黑名单中，已被登出");
+                        }
+                        return exists;
+                    })
+                    .exceptionally(e -> {
+                        log.error("检查Token黑名单状态失败: {}", e.getMessage(), e);
+                        // 为了安全起见，如果检查失败，返回true（拒绝访问）
+                        return true;
+                    });
 
         } catch (Exception e) {
             log.error("检查Token黑名单状态失败: {}", e.getMessage(), e);
-            // 为了安全起见，如果检查失败，返回true（拒绝访问）
-            return true;
+            return CompletableFuture.completedFuture(true);
         }
     }
+
+    /**
+     * 黑名单 Key 后缀转为摘要：旧格式为完整 Token（含 '.'），新格式本身即摘要
+     */
+    private String toDigest(String suffix) {
+        return suffix.indexOf('.') >= 0 ? tokenCodec.digest(suffix) : suffix;
+    }
+
+    /**
+     * 可能漏收了广播：丢弃过滤器，重建完成前全部查询 Redis
+     */
+    private void discardFilter() {
+        discards.incrementAndGet();
+        filter = null;
+        log.warn("黑名单广播可能丢失，丢弃布隆过滤器并后台重建");
+        CompletableFuture.runAsync(this::rebuildFilter);
+    }
+
+    private void addLocal(String digest) {
+        // 先读 building 再读 filter：与重建时"先替换 filter 再清空 building"的顺序配合，新过滤器不会漏写
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(digest);
+        }
+        BloomFilter current = filter;
+        if (current != null && current != next) {
+            current.put(digest);
+        }
+    }
+
+    private double observedFpr() {
+        double falsePositives = falsePositiveCounter.count();
+        double negatives = falsePositives + negativeCounter.count();
+        return negatives == 0 ? 0 : falsePositives / negatives;
+    }
+
+    private static Counter filterCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("wms.token.blacklist.filter")
+                .description("黑名单布隆过滤器判定结果")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
 }
@@ -0,0 +1,167 @@
+package org.example.service;
+
+import jakarta.annotation.PostConstruct;
+import org.example.cache.CacheRegion;
+import org.example.cache.InvalidationBus;
+import org.example.cache.InvalidationListener;
+import org.example.util.TokenClaims;
+import org.example.util.TokenCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户级 Token 吊销服务
+ * <p>
+ * 每个用户一个 tokensValidAfter 水位（毫秒）：签发时间不晚于水位的 Token 一律视为已吊销。
+ * Token 携带毫秒精度的签发时间，吊销后立即重新登录得到的 Token 不受影响。
+ * 吊销用户全部会话只需写一个 Key，校验只查一次本地 Map，无需知道用户持有哪些 Token。
+ * <p>
+ * 水位存于 Redis（token:valid-after:{userId}），TTL 与 Token 有效期一致——
+ * 过期后水位之前签发的 Token 也都已过期，Key 自然消失。
+ * 本地镜像启动时加载，各节点通过 {@link InvalidationBus} 同步，并定期全量重载。
+ * 总线检测到漏收事件（含订阅断开重连）时立即全量重载，不等待定期重载。
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final String VALID_AFTER_PREFIX = "token:valid-after:";
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final RedisService redisService;
+    private final TokenCodec tokenCodec;
+    private final InvalidationBus invalidationBus;
+
+    /**
+     * 本地镜像：userId -> 水位（epoch 毫秒）
+     */
+    private volatile Map<String, Long> validAfter = new ConcurrentHashMap<>();
+
+    public TokenRevocationService(RedisService redisService, TokenCodec tokenCodec, InvalidationBus invalidationBus) {
+        this.redisService = redisService;
+        this.tokenCodec = tokenCodec;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(CacheRegion.TOKEN_REVOCATION, new InvalidationListener() {
+            @Override
+            public void evict(List<String> keys) {
+                keys.forEach(TokenRevocationService.this::onMessage);
+            }
+
+            @Override
+            public void evictAll() {
+                log.warn("会话吊销广播可能丢失，后台全量重载水位");
+                CompletableFuture.runAsync(TokenRevocationService.this::reload);
+            }
+        });
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * 吊销用户当前所有 Token
+     * 此刻及之前签发的 Token 全部失效
+     */
+    public void revokeAllSessions(String userId) {
+        long watermark = Instant.now().toEpochMilli();
+        redisService.set(VALID_AFTER_PREFIX + userId, watermark,
+                tokenCodec.getExpiration().toMillis(), TimeUnit.MILLISECONDS);
+        advanceCurrent(userId, watermark);
+        invalidationBus.publish(CacheRegion.TOKEN_REVOCATION, userId + ":" + watermark);
+        log.info("已吊销用户全部会话: userId={}, validAfter={}", userId, watermark);
+    }
+
+    /**
+     * Token 是否已被用户级吊销（仅查本地镜像）
+     */
+    public boolean isRevoked(TokenClaims claims) {
+        Long watermark = validAfter.get(claims.userId());
+        return watermark != null && claims.issuedAt().toEpochMilli() <= watermark;
+    }
+
+    /**
+     * 从 Redis 全量重载本地镜像，同时清除已过期的水位
+     */
+    @Scheduled(initialDelayString = "${wms.token-revocation.reload-interval:PT24H}",
+            fixedDelayString = "${wms.token-revocation.reload-interval:PT24H}")
+    public synchronized void reload() {
+        try {
+            Map<String, Long> loaded = new ConcurrentHashMap<>();
+            List<String> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+            for (String key : redisService.scanKeys(VALID_AFTER_PREFIX + "*")) {
+                batch.add(key);
+                if (batch.size() == LOAD_BATCH_SIZE) {
+                    load(batch, loaded);
+                    batch.clear();
+                }
+            }
+            load(batch, loaded);
+            // 先替换再合并加载期间收到的广播（已超过 Token 有效期的水位不再保留）；
+            // 替换之后才写入旧镜像的广播由 advanceCurrent 补写到新镜像
+            Map<String, Long> previous = validAfter;
+            validAfter = loaded;
+            long horizon = Instant.now().minus(tokenCodec.getExpiration()).toEpochMilli();
+            previous.forEach((userId, watermark) -> {
+                if (watermark > horizon) {
+                    advance(loaded, userId, watermark);
+                }
+            });
+            log.info("会话吊销水位已加载: {} 个用户", loaded.size());
+        } catch (Exception e) {
+            log.error("加载会话吊销水位失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private void load(List<String> keys, Map<String, Long> target) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        redisService.multiGet(keys).forEach((key, value) ->
+                advance(target, key.substring(VALID_AFTER_PREFIX.length()), ((Number) value).longValue()));
+    }
+
+    /**
+     * 处理水位广播，消息为 userId:水位毫秒数
+     */
+    private void onMessage(String message) {
+        int separator = message.lastIndexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+        advanceCurrent(message.substring(0, separator), Long.parseLong(message.substring(separator + 1)));
+    }
+
+    /**
+     * 推进当前镜像中的水位
+     * 与 reload 并发时，写入可能落在已被替换、且已合并完毕的旧镜像中；写入后镜像已被替换则对新镜像再写一次，
+     * 不占用 reload 的锁（reload 期间要扫描 Redis，广播线程不能长时间阻塞）
+     */
+    private void advanceCurrent(String userId, long watermark) {
+        Map<String, Long> target;
+        do {
+            target = validAfter;
+            advance(target, userId, watermark);
+        } while (target != validAfter);
+    }
+
+    /**
+     * 水位只前进不后退
+     */
+    private static void advance(Map<String, Long> target, String userId, long watermark) {
+        target.merge(userId, watermark, Math::max);
+    }
+}
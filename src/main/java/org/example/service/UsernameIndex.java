@@ -0,0 +1,232 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.example.cache.CacheRegion;
+import org.example.cache.InvalidationBus;
+import org.example.cache.InvalidationListener;
+import org.example.entity.SysUser;
+import org.example.repository.UserRepository;
+import org.example.util.BloomFilter;
+import org.example.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 用户名索引
+ * <p>
+ * 登录和注册前先查本地：布隆过滤器判定不存在、或短期负缓存命中，即可确定用户名不存在，不访问数据库。
+ * 撞库流量大多是不存在的用户名，这部分请求全部在内存中拒绝。
+ * <p>
+ * 布隆过滤器启动时从 sys_user 加载，注册/恢复用户时加入并通过 {@link InvalidationBus} 同步到其他节点；
+ * 用户归档后用户名仍留在过滤器中（只会多查一次数据库），定期重建时清除。
+ * <p>
+ * 写入 sys_user 的路径（注册、创建公司管理员、恢复用户）都调用 {@link #add}；
+ * 总线检测到漏收事件（含订阅断开重连）时丢弃过滤器和负缓存，重建完成前全部查询数据库。
+ * 仍有漏判时，注册插入由 sys_user.user_name 唯一约束拒绝，调用方通过 {@link #recordDuplicate} 补入并计数。
+ */
+@Service
+public class UsernameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UsernameIndex.class);
+
+    private final UserRepository userRepository;
+    private final InvalidationBus invalidationBus;
+
+    private final long expectedInsertions;
+    private final double fpp;
+
+    /**
+     * 当前过滤器，为 null 表示尚未加载（全部查询数据库）
+     */
+    private volatile BloomFilter filter;
+
+    /**
+     * 重建中的过滤器，重建期间新增的用户名同时写入
+     */
+    private volatile BloomFilter building;
+
+    /**
+     * 负缓存：数据库确认不存在的用户名
+     */
+    private final Cache<String, Boolean> absent;
+
+    /**
+     * 新增用户名计数，查询期间有新增时不写负缓存
+     */
+    private final AtomicLong additions = new AtomicLong();
+
+    /**
+     * 丢弃次数；重建开始后发生过丢弃时，加载结果可能漏掉丢失的用户名，不启用
+     */
+    private final AtomicLong discards = new AtomicLong();
+
+    /**
+     * 过滤器判定不存在、插入却违反用户名唯一约束的次数
+     */
+    private final Counter filterMissCounter;
+
+    public UsernameIndex(UserRepository userRepository, InvalidationBus invalidationBus, MeterRegistry meterRegistry,
+                         @Value("${wms.username-index.expected-insertions:100000}") long expectedInsertions,
+                         @Value("${wms.username-index.fpp:0.01}") double fpp,
+                         @Value("${wms.username-index.negative-ttl:30s}") Duration negativeTtl,
+                         @Value("${wms.username-index.negative-max-size:100000}") long negativeMaxSize) {
+        this.userRepository = userRepository;
+        this.invalidationBus = invalidationBus;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.absent = Caffeine.newBuilder()
+                .expireAfterWrite(negativeTtl)
+                .maximumSize(negativeMaxSize)
+                .build();
+        this.filterMissCounter = Counter.builder("wms.username.index.filter.missed")
+                .description("用户名布隆过滤器判定不存在、插入却违反唯一约束的次数（漏判或并发注册同名）")
+                .register(meterRegistry);
+
+        invalidationBus.subscribe(CacheRegion.USERNAME, new InvalidationListener() {
+            @Override
+            public void evict(List<String> usernames) {
+                usernames.forEach(UsernameIndex.this::addLocal);
+            }
+
+            @Override
+            public void evictAll() {
+                discard();
+            }
+        });
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    /**
+     * 从 sys_user 重建布隆过滤器
+     */
+    @Scheduled(initialDelayString = "${wms.username-index.rebuild-interval:PT6H}",
+            fixedDelayString = "${wms.username-index.rebuild-interval:PT6H}")
+    public synchronized void rebuild() {
+        long discardStamp = discards.get();
+        BloomFilter next = new BloomFilter(expectedInsertions, fpp);
+        building = next;
+        try {
+            List<String> usernames = userRepository.findAllUsernames();
+            for (String username : usernames) {
+                next.put(username);
+            }
+            if (discards.get() != discardStamp) {
+                log.info("重建期间用户名广播可能丢失，放弃本次结果，等待下一次重建");
+                return;
+            }
+            filter = next;
+            if (usernames.size() > expectedInsertions) {
+                log.warn("用户数 {} 超过用户名布隆过滤器预期容量 {}，误判率将上升", usernames.size(), expectedInsertions);
+            }
+            log.info("用户名布隆过滤器已重建: {} 个", usernames.size());
+        } catch (Exception e) {
+            log.error("重建用户名布隆过滤器失败，沿用旧过滤器: {}", e.getMessage(), e);
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * 按用户名查询用户，确定不存在时不访问数据库
+     */
+    public SysUser findByUsername(String username) {
+        return lookup(username, () -> userRepository.findByUsername(username));
+    }
+
+    /**
+     * 用户名是否已存在，确定不存在时不访问数据库
+     */
+    public boolean existsByUsername(String username) {
+        return lookup(username, () -> userRepository.existsByUsername(username) ? Boolean.TRUE : null) != null;
+    }
+
+    /**
+     * 新增用户名（注册、恢复用户），事务提交后生效并广播
+     */
+    public void add(String username) {
+        TransactionUtil.afterCommit(() -> addLocal(username));
+        invalidationBus.publish(CacheRegion.USERNAME, username);
+    }
+
+    /**
+     * 过滤器判定不存在、插入却违反唯一约束：补入过滤器并计数（事务回滚后用户名仍存在，立即生效）
+     */
+    public void recordDuplicate(String username) {
+        filterMissCounter.increment();
+        log.warn("用户名已存在但本地索引判定不存在，已补入: username={}", username);
+        addLocal(username);
+    }
+
+    /**
+     * 用户名已移除（归档用户），事务提交后写入负缓存
+     */
+    public void remove(String username) {
+        TransactionUtil.afterCommit(() -> absent.put(username, Boolean.TRUE));
+    }
+
+    /**
+     * 过滤器已加载时以其"不存在"判定为准；过滤器未加载或被丢弃、尚未重建完成时查询数据库
+     */
+    private <T> T lookup(String username, Supplier<T> loader) {
+        if (username == null) {
+            return null;
+        }
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(username)) {
+            return null;
+        }
+        if (absent.getIfPresent(username) != null) {
+            return null;
+        }
+        long stamp = additions.get();
+        T result = loader.get();
+        // 查询期间有新增用户名时不写负缓存，避免缓存刚注册的用户名
+        if (result == null && additions.get() == stamp) {
+            absent.put(username, Boolean.TRUE);
+        }
+        return result;
+    }
+
+    /**
+     * 可能漏收了新增广播：丢弃过滤器和负缓存，重建完成前全部查询数据库
+     */
+    private void discard() {
+        discards.incrementAndGet();
+        filter = null;
+        additions.incrementAndGet();
+        absent.invalidateAll();
+        log.warn("用户名广播可能丢失，丢弃布隆过滤器和负缓存并后台重建");
+        CompletableFuture.runAsync(this::rebuild);
+    }
+
+    private void addLocal(String username) {
+        additions.incrementAndGet();
+        absent.invalidate(username);
+        // 先读 building 再读 filter，与重建时的替换顺序配合，新过滤器不会漏写
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(username);
+        }
+        BloomFilter current = filter;
+        if (current != null && current != next) {
+            current.put(username);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.example.cache.CacheRegion;
+import org.example.cache.InvalidationBus;
+import org.example.cache.InvalidationListener;
+import org.example.util.TokenClaims;
+import org.example.util.TokenCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 已验证 Token 缓存
+ * <p>
+ * 以 Token 摘要为键缓存验证结果，同一 Token 在短时间内重复请求时跳过签名校验和黑名单查询。
+ * 条目存活时间取 min(配置TTL, Token剩余有效期)，按条数上限淘汰。
+ * <p>
+ * 登出时同步写入"已吊销"标记覆盖原条目，本节点立即生效；
+ * 同时通过 {@link InvalidationBus} 通知其他节点写入吊销标记。事件丢失时其他节点整体清空缓存，
+ * 最坏情况下在 TTL 内仍认可该 Token，TTL 应保持较短。
+ */
+@Service
+public class VerifiedTokenCache {
+
+    private final TokenCodec tokenCodec;
+    private final InvalidationBus invalidationBus;
+    private final Cache<String, Entry> cache;
+
+    public VerifiedTokenCache(TokenCodec tokenCodec, InvalidationBus invalidationBus,
+                              @Value("${wms.token-cache.ttl:30s}") Duration ttl,
+                              @Value("${wms.token-cache.max-size:100000}") long maxSize) {
+        this.tokenCodec = tokenCodec;
+        this.invalidationBus = invalidationBus;
+        long ttlNanos = ttl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry value, long currentTime) {
+                        return value.ttlNanos(ttlNanos);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry value, long currentTime, long currentDuration) {
+                        return value.ttlNanos(ttlNanos);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        invalidationBus.subscribe(CacheRegion.TOKEN, new InvalidationListener() {
+            @Override
+            public void evict(List<String> keys) {
+                keys.forEach(VerifiedTokenCache.this::revokeRemote);
+            }
+
+            @Override
+            public void evictAll() {
+                cache.invalidateAll();
+            }
+        });
+    }
+
+    /**
+     * 获取已验证的声明
+     *
+     * @param token    JWT Token
+     * @param verifier 未命中时执行的完整校验，校验失败返回 null（不缓存）
+     * @return 已验证的声明，Token 无效或已吊销时返回 null
+     */
+    public TokenClaims get(String token, Supplier<TokenClaims> verifier) {
+        String key = tokenCodec.digest(token);
+        Entry cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.claims;
+        }
+        TokenClaims claims = verifier.get();
+        if (claims == null) {
+            return null;
+        }
+        // 校验期间若已被吊销，不覆盖吊销标记
+        Entry existing = cache.asMap().putIfAbsent(key, new Entry(claims, claims.expiresAt()));
+        return existing != null ? existing.claims : claims;
+    }
+
+    /**
+     * 吊销 Token（同步生效）
+     *
+     * @param expiresAt Token 过期时间
+     */
+    public void revoke(String token, Instant expiresAt) {
+        String digest = tokenCodec.digest(token);
+        cache.put(digest, new Entry(null, expiresAt));
+        invalidationBus.publish(CacheRegion.TOKEN, digest + ":" + expiresAt.getEpochSecond());
+    }
+
+    /**
+     * 其他节点的吊销事件，键为 {摘要}:{过期时间秒}
+     */
+    private void revokeRemote(String key) {
+        int separator = key.lastIndexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+        Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(key.substring(separator + 1)));
+        cache.put(key.substring(0, separator), new Entry(null, expiresAt));
+    }
+
+    /**
+     * 缓存条目，claims 为 null 表示已吊销
+     */
+    private static final class Entry {
+        final TokenClaims claims;
+        final Instant expiresAt;
+
+        Entry(TokenClaims claims, Instant expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+
+        long ttlNanos(long maxNanos) {
+            long remaining = Duration.between(Instant.now(), expiresAt).toNanos();
+            return Math.max(0, Math.min(maxNanos, remaining));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 权限代码前缀索引
+ * <p>
+ * 权限代码按层级以 ':' 分隔（如 system:user:add），
+ * 将代码排序后，"以 parent: 开头" 的代码必然落在一段连续区间内，
+ * 两次二分查找即可取出某菜单下的全部按钮/字段权限，无需逐条 startsWith，也不拼接字符串。
+ * <p>
+ * 返回结果保持构建时的原始顺序。构建后不可变，可在线程间共享。
+ */
+public class CodePrefixIndex {
+
+    private static final char SEPARATOR = ':';
+
+    /**
+     * 按字典序排序的代码
+     */
+    private final String[] sortedCodes;
+
+    /**
+     * sortedCodes[i] 在原始列表中的位置
+     */
+    private final int[] positions;
+
+    public CodePrefixIndex(Collection<String> codes) {
+        String[] original = codes.toArray(new String[0]);
+        Integer[] order = new Integer[original.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> original[a].compareTo(original[b]));
+
+        this.sortedCodes = new String[original.length];
+        this.positions = new int[original.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedCodes[i] = original[order[i]];
+            positions[i] = order[i];
+        }
+    }
+
+    /**
+     * 查询以 parentCode + ":" 开头的所有代码（按原始顺序）
+     */
+    public List<String> findChildren(String parentCode) {
+        int from = lowerBound(parentCode, SEPARATOR);
+        int to = lowerBound(parentCode, (char) (SEPARATOR + 1));
+        if (from >= to) {
+            return new ArrayList<>();
+        }
+        int[] hits = Arrays.copyOfRange(positions, from, to);
+        Arrays.sort(hits);
+        String[] byPosition = new String[to - from];
+        // 区间内按原始位置还原顺序
+        for (int i = from; i < to; i++) {
+            byPosition[Arrays.binarySearch(hits, positions[i])] = sortedCodes[i];
+        }
+        return new ArrayList<>(Arrays.asList(byPosition));
+    }
+
+    /**
+     * 第一个不小于 prefix + suffix 的位置
+     */
+    private int lowerBound(String prefix, char suffix) {
+        int low = 0;
+        int high = sortedCodes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(sortedCodes[mid], prefix, suffix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 比较 code 与 prefix + suffix（不创建拼接字符串）
+     */
+    private static int compare(String code, String prefix, char suffix) {
+        int n = Math.min(code.length(), prefix.length());
+        for (int i = 0; i < n; i++) {
+            char c = code.charAt(i);
+            char p = prefix.charAt(i);
+            if (c != p) {
+                return c - p;
+            }
+        }
+        if (code.length() < prefix.length()) {
+            return -1;
+        }
+        if (code.length() == prefix.length()) {
+            return -1;
+        }
+        return code.charAt(prefix.length()) - suffix;
+    }
+}
@@ -0,0 +1,186 @@
+package org.example.tree;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 通用树形结构组装器（邻接表 -> 树）
+ * <p>
+ * 一次遍历建立 parentId -> children 索引，每组兄弟节点只排序一次，
+ * 再以显式栈自底向上构建节点，整体复杂度 O(n log n)，深层级也不会栈溢出。
+ * <p>
+ * 组装时同时检测：
+ * 孤儿节点 - parentId 不为空但父节点不在列表中（连同其子树不会出现在结果里）；
+ * 环 - 从根节点不可达、也不属于孤儿子树的节点。
+ *
+ * @param <T>  源数据类型（如 SysMenu、SysDepartment）
+ * @param <ID> 主键类型
+ */
+public class TreeAssembler<T, ID> {
+
+    private static final Logger log = LoggerFactory.getLogger(TreeAssembler.class);
+
+    private final Function<T, ID> idGetter;
+    private final Function<T, ID> parentIdGetter;
+    private final Comparator<? super T> siblingOrder;
+
+    /**
+     * @param idGetter       取节点ID
+     * @param parentIdGetter 取父节点ID，为 null 表示根节点
+     * @param siblingOrder   兄弟节点排序规则，为 null 时保持输入顺序
+     */
+    public TreeAssembler(Function<T, ID> idGetter,
+                         Function<T, ID> parentIdGetter,
+                         Comparator<? super T> siblingOrder) {
+        this.idGetter = idGetter;
+        this.parentIdGetter = parentIdGetter;
+        this.siblingOrder = siblingOrder;
+    }
+
+    /**
+     * 组装树
+     *
+     * @param items       节点列表
+     * @param nodeFactory 由源数据和已构建好的子节点列表生成目标节点
+     * @param <R>         目标节点类型（如 MenuResponse、DepartmentResponse）
+     * @return 组装结果
+     */
+    public <R> Result<T, R> assemble(Collection<T> items, BiFunction<T, List<R>, R> nodeFactory) {
+        // 1. 一次遍历建立索引
+        Set<ID> ids = new HashSet<>(items.size() * 2);
+        for (T item : items) {
+            ids.add(idGetter.apply(item));
+        }
+        List<T> roots = new ArrayList<>();
+        List<T> orphans = new ArrayList<>();
+        Map<ID, List<T>> childrenByParent = new HashMap<>(items.size() * 2);
+        for (T item : items) {
+            ID parentId = parentIdGetter.apply(item);
+            if (parentId == null) {
+                roots.add(item);
+            } else if (ids.contains(parentId)) {
+                childrenByParent.computeIfAbsent(parentId, k -> new ArrayList<>()).add(item);
+            } else {
+                orphans.add(item);
+            }
+        }
+
+        // 2. 每组兄弟节点排序一次
+        if (siblingOrder != null) {
+            roots.sort(siblingOrder);
+            for (List<T> children : childrenByParent.values()) {
+                children.sort(siblingOrder);
+            }
+        }
+
+        // 3. 显式栈后序遍历，子节点先于父节点构建
+        Set<ID> visited = new HashSet<>(items.size() * 2);
+        List<R> result = build(roots, childrenByParent, visited, nodeFactory);
+
+        // 4. 孤儿子树可达的节点不算环
+        build(orphans, childrenByParent, visited, (item, children) -> null);
+        List<T> cycles = new ArrayList<>();
+        for (T item : items) {
+            if (!visited.contains(idGetter.apply(item))) {
+                cycles.add(item);
+            }
+        }
+
+        if (!cycles.isEmpty()) {
+            log.warn("树形结构存在环，已忽略 {} 个节点: ids={}", cycles.size(),
+                    cycles.stream().map(idGetter).toList());
+        }
+        if (!orphans.isEmpty()) {
+            log.debug("树形结构存在孤儿节点，已忽略 {} 个节点", orphans.size());
+        }
+        return new Result<>(result, orphans, cycles);
+    }
+
+    private <R> List<R> build(List<T> roots, Map<ID, List<T>> childrenByParent, Set<ID> visited,
+                              BiFunction<T, List<R>, R> nodeFactory) {
+        List<R> result = new ArrayList<>(roots.size());
+        Deque<Frame<T, R>> stack = new ArrayDeque<>();
+        for (T root : roots) {
+            if (!visited.add(idGetter.apply(root))) {
+                continue;
+            }
+            stack.push(new Frame<>(root, childrenByParent.getOrDefault(idGetter.apply(root), List.of())));
+            while (!stack.isEmpty()) {
+                Frame<T, R> frame = stack.peek();
+                if (frame.next < frame.children.size()) {
+                    T child = frame.children.get(frame.next++);
+                    ID childId = idGetter.apply(child);
+                    if (visited.add(childId)) {
+                        stack.push(new Frame<>(child, childrenByParent.getOrDefault(childId, List.of())));
+                    }
+                    continue;
+                }
+                stack.pop();
+                R node = nodeFactory.apply(frame.item, frame.built);
+                if (stack.isEmpty()) {
+                    result.add(node);
+                } else {
+                    stack.peek().built.add(node);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 遍历栈帧
+     */
+    private static final class Frame<T, R> {
+        final T item;
+        final List<T> children;
+        final List<R> built;
+        int next;
+
+        Frame(T item, List<T> children) {
+            this.item = item;
+            this.children = children;
+            this.built = new ArrayList<>(children.size());
+        }
+    }
+
+    /**
+     * 组装结果
+     */
+    public static class Result<T, R> {
+
+        private final List<R> roots;
+        private final List<T> orphans;
+        private final List<T> cycles;
+
+        public Result(List<R> roots, List<T> orphans, List<T> cycles) {
+            this.roots = roots;
+            this.orphans = orphans;
+            this.cycles = cycles;
+        }
+
+        /**
+         * 根节点列表（已排序，含完整子树）
+         */
+        public List<R> getRoots() {
+            return roots;
+        }
+
+        /**
+         * 孤儿节点（父节点不在列表中）
+         */
+        public List<T> getOrphans() {
+            return orphans;
+        }
+
+        /**
+         * 处于环中（或挂在环下）的节点
+         */
+        public List<T> getCycles() {
+            return cycles;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.util;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 批量关联数据填充器（避免 N+1 查询）
+ * <p>
+ * 收集目标对象上去重后的关联键，调用一次批量加载，再在内存中回填。
+ * <p>
+ * 使用示例：
+ * new Enricher<>(PostResponse::getDepartmentId,
+ *         departmentRepository::findNamesByIds,
+ *         PostResponse::setDepartmentName).enrich(responses);
+ *
+ * @param <T> 待填充的对象类型（通常为响应DTO）
+ * @param <K> 关联键类型
+ * @param <V> 关联数据类型
+ */
+public class Enricher<T, K, V> {
+
+    private final Function<T, K> keyGetter;
+    private final Function<Collection<K>, Map<K, V>> batchLoader;
+    private final BiConsumer<T, V> setter;
+
+    /**
+     * @param keyGetter   取关联键，返回 null 时跳过
+     * @param batchLoader 按键批量加载，返回 键 -> 关联数据
+     * @param setter      回填关联数据（仅在找到时调用）
+     */
+    public Enricher(Function<T, K> keyGetter,
+                    Function<Collection<K>, Map<K, V>> batchLoader,
+                    BiConsumer<T, V> setter) {
+        this.keyGetter = keyGetter;
+        this.batchLoader = batchLoader;
+        this.setter = setter;
+    }
+
+    /**
+     * 填充一批对象
+     */
+    public <C extends Collection<T>> C enrich(C targets) {
+        Set<K> keys = new LinkedHashSet<>();
+        for (T target : targets) {
+            K key = keyGetter.apply(target);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+        if (keys.isEmpty()) {
+            return targets;
+        }
+        Map<K, V> values = batchLoader.apply(keys);
+        for (T target : targets) {
+            K key = keyGetter.apply(target);
+            V value = key != null ? values.get(key) : null;
+            if (value != null) {
+                setter.accept(target, value);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * 填充单个对象
+     */
+    public T enrich(T target) {
+        enrich(List.of(target));
+        return target;
+    }
+}
@@ -1,123 +0,0 @@
-package org.example.util;
-
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
-
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
-
-/**
- * JWT 工具类
- */
-public class JwtUtil {
-    /**
-     * JWT 密钥（生产环境应该放在配置文件中）
-     */
-    private static final String SECRET_KEY = "wms-secret-key-for-jwt-token-generation-must-be-at-least-256-bits-long";
-
-    /**
-     * Token 过期时间（7天，单位：毫秒）
-     */
-    private static final long EXPIRATION_TIME = 7 * 24 * 60 * 60 * 1000;
-
-    /**
-     * 获取密钥
-     */
-    private static SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
-    }
-
-    /**
-     * 生成 JWT Token
-     *
-     * @param userId   用户ID
-     * @param username 用户名
-     * @return JWT Token
-     */
-    public static String generateToken(String userId, String username) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("userId", userId);
-        claims.put("username", username);
-
-        Date now = new Date();
-        Date expirationDate = new Date(now.getTime() + EXPIRATION_TIME);
-
-        return Jwts.builder()
-                .claims(claims)
-                .subject(username)
-                .issuedAt(now)
-                .expiration(expirationDate)
-                .signWith(getSigningKey())
-                .compact();
-    }
-
-    /**
-     * 解析 JWT Token
-     *
-     * @param token JWT Token
-     * @return Claims
-     */
-    public static Claims parseToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    /**
-     * 从 Token 中获取用户ID
-     */
-    public static String getUserId(String token) {
-        Claims claims = parseToken(token);
-        return claims.get("userId", String.class);
-    }
-
-    /**
-     * 从 Token 中获取用户名
-     */
-    public static String getUsername(String token) {
-        Claims claims = parseToken(token);
-        return claims.get("username", String.class);
-    }
-
-    /**
-     * 从 Token 中获取过期时间
-     */
-    public static Date getExpirationDate(String token) {
-        try {
-            Claims claims = parseToken(token);
-            return claims.getExpiration();
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    /**
-     * 验证 Token 是否过期
-     */
-    public static boolean isTokenExpired(String token) {
-        try {
-            Claims claims = parseToken(token);
-            return claims.getExpiration().before(new Date());
-        } catch (Exception e) {
-            return true;
-        }
-    }
-
-    /**
-     * 验证 Token 是否有效
-     */
-    public static boolean validateToken(String token) {
-        try {
-            parseToken(token);
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
-        }
-    }
-}
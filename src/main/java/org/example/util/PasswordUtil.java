@@ -7,6 +7,21 @@ import org.mindrot.jbcrypt.BCrypt;
  */
 public class PasswordUtil {
 
+    /**
+     * 默认计算成本（log2 轮数）
+     */
+    public static final int DEFAULT_COST = 10;
+
+    /**
+     * 最小计算成本
+     */
+    public static final int MIN_COST = 4;
+
+    /**
+     * 最大计算成本（jBCrypt 的 hashpw 拒绝超过 30 的轮数）
+     */
+    public static final int MAX_COST = 30;
+
     /**
      * 加密密码
      *
@@ -14,7 +29,40 @@ public class PasswordUtil {
      * @return 加密后的密码
      */
     public static String hashPassword(String plainPassword) {
-        return BCrypt.hashpw(plainPassword, BCrypt.gensalt());
+        return hashPassword(plainPassword, DEFAULT_COST);
+    }
+
+    /**
+     * 按指定成本加密密码
+     *
+     * @param plainPassword 明文密码
+     * @param cost          计算成本（{@value #MIN_COST}~{@value #MAX_COST}，每加 1 耗时翻倍）
+     * @return 加密后的密码
+     * @throws IllegalArgumentException 计算成本超出范围
+     */
+    public static String hashPassword(String plainPassword, int cost) {
+        if (cost < MIN_COST || cost > MAX_COST) {
+            throw new IllegalArgumentException("计算成本须在 " + MIN_COST + "~" + MAX_COST + " 之间: " + cost);
+        }
+        return BCrypt.hashpw(plainPassword, BCrypt.gensalt(cost));
+    }
+
+    /**
+     * 读取哈希值中的计算成本（格式 $2a$10$...），无法识别时返回 -1
+     */
+    public static int getCost(String hashedPassword) {
+        if (hashedPassword == null || hashedPassword.length() < 7 || hashedPassword.charAt(0) != '$') {
+            return -1;
+        }
+        int end = hashedPassword.indexOf('$', 1);
+        if (end < 0 || end + 3 > hashedPassword.length()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hashedPassword.substring(end + 1, end + 3));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
 
     /**
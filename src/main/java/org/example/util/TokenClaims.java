@@ -0,0 +1,15 @@
+package org.example.util;
+
+import java.time.Instant;
+
+/**
+ * 已验证的 Token 声明（不可变）
+ *
+ * @param userId    用户ID
+ * @param username  用户名
+ * @param issuedAt  签发时间（毫秒精度；旧 Token 为秒精度）
+ * @param expiresAt 过期时间
+ * @param jti       Token 唯一标识
+ */
+public record TokenClaims(String userId, String username, Instant issuedAt, Instant expiresAt, String jti) {
+}
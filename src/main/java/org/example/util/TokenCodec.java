@@ -0,0 +1,128 @@
+package org.example.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * JWT 编解码器
+ * <p>
+ * 密钥和解析器在构造时创建一次，之后只读，可在线程间共享。
+ * 一次 {@link #parse(String)} 同时完成签名校验、过期校验和声明提取，调用方不再重复解析。
+ */
+@Component
+public class TokenCodec {
+
+    /**
+     * 毫秒精度的签发时间。标准 iat 只有秒精度，用户级吊销需要区分同一秒内吊销前后签发的 Token
+     */
+    private static final String ISSUED_AT_MILLIS_CLAIM = "iatMs";
+
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    /**
+     * Token 有效期
+     */
+    private final Duration expiration;
+
+    public TokenCodec(@Value("${wms.jwt.secret:wms-secret-key-for-jwt-token-generation-must-be-at-least-256-bits-long}") String secret,
+                      @Value("${wms.jwt.expiration:7d}") Duration expiration) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.expiration = expiration;
+    }
+
+    /**
+     * Token 有效期
+     */
+    public Duration getExpiration() {
+        return expiration;
+    }
+
+    /**
+     * 生成 JWT Token
+     *
+     * @param userId   用户ID
+     * @param username 用户名
+     * @return JWT Token
+     */
+    public String generate(String userId, String username) {
+        Date now = new Date();
+        return Jwts.builder()
+                .id(UUID.randomUUID().toString().replace("-", ""))
+                .claim("userId", userId)
+                .claim("username", username)
+                .subject(username)
+                .issuedAt(now)
+                .claim(ISSUED_AT_MILLIS_CLAIM, now.getTime())
+                .expiration(new Date(now.getTime() + expiration.toMillis()))
+                .signWith(signingKey)
+                .compact();
+    }
+
+    /**
+     * 解析并校验 Token
+     *
+     * @param token JWT Token
+     * @return 已验证的声明
+     * @throws JwtException 签名无效、格式错误、缺少过期时间或已过期
+     */
+    public TokenClaims parse(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        // 本系统签发的 Token 都带过期时间，缺失时视为无效，不允许永久有效
+        if (claims.getExpiration() == null) {
+            throw new MalformedJwtException("Token 缺少过期时间");
+        }
+        // 旧 Token 没有毫秒签发时间，退回秒精度的 iat
+        Long issuedAtMillis = claims.get(ISSUED_AT_MILLIS_CLAIM, Long.class);
+        Instant issuedAt = issuedAtMillis != null ? Instant.ofEpochMilli(issuedAtMillis)
+                : claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : Instant.EPOCH;
+        return new TokenClaims(
+                claims.get("userId", String.class),
+                claims.get("username", String.class),
+                issuedAt,
+                claims.getExpiration().toInstant(),
+                claims.getId());
+    }
+
+    /**
+     * Token 摘要（SHA-256 前 128 位，Base64URL）
+     * 用作缓存等场景的键，避免保存完整 Token
+     */
+    public String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 解析并校验 Token，无效时返回 null
+     */
+    public TokenClaims tryParse(String token) {
+        try {
+            return parse(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}